@@ -0,0 +1,175 @@
+/******************************************************************************
+ *  Compilation:  javac Accumulator.java
+ *  Execution:    java Accumulator < input.txt
+ *  Dependencies: StdOut.java StdIn.java
+ *
+ *  Mutable data type that calculates the mean, sample standard
+ *  deviation, sample variance, minimum and maximum of a stream of
+ *  real numbers using a numerically stable algorithm (Welford's),
+ *  and that can merge the statistics of two streams (for example,
+ *  partial results computed by separate threads).
+ *
+ ******************************************************************************/
+
+/**
+ * The {@code Accumulator} class is a data type for computing the running
+ * mean, sample standard deviation, and sample variance of a stream of real
+ * numbers. It provides an example of a mutable data type and a streaming
+ * algorithm.
+ * <p>
+ * This implementation uses a one-pass algorithm that is less susceptible
+ * to floating-point roundoff error than the more straightforward
+ * implementation based on saving the sum of the squares of the numbers.
+ * This technique is due to
+ * <a href = "https://en.wikipedia.org/wiki/Algorithms_for_calculating_variance#Online_algorithm">B. P. Welford</a>.
+ * Each operation takes constant time in the worst case.
+ * The amount of memory is constant - the data values are not stored.
+ * <p>
+ * Two accumulators can be combined with {@link #merge(Accumulator)}, using
+ * the pairwise update of Chan, Golub and LeVeque, so a stream can be split
+ * into parts that are accumulated independently (for example, one per
+ * thread) and then merged into statistics for the whole stream.
+ * <p>
+ * For additional documentation,
+ * see <a href="https://algs4.cs.princeton.edu/12oop">Section 1.2</a> of
+ * <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ *
+ * @author Robert Sedgewick
+ * @author Kevin Wayne
+ */
+public class Accumulator {
+    private int n = 0;                                  // number of data values
+    private double sum = 0.0;                           // sum of squared deviations from the mean (M2)
+    private double mu = 0.0;                            // sample mean
+    private double min = Double.POSITIVE_INFINITY;      // smallest data value
+    private double max = Double.NEGATIVE_INFINITY;      // largest data value
+
+    /**
+     * Initializes an accumulator.
+     */
+    public Accumulator() {
+    }
+
+    /**
+     * Adds the specified data value to the accumulator.
+     *
+     * @param x the data value
+     */
+    public void addDataValue(double x) {
+        n++;
+        double delta = x - mu;
+        mu += delta / n;
+        sum += (double) (n - 1) / n * delta * delta;
+        if (x < min) min = x;
+        if (x > max) max = x;
+    }
+
+    /**
+     * Adds all of the data values accumulated by {@code that} to this
+     * accumulator, as if each had been passed to {@link #addDataValue(double)}.
+     * {@code that} is not modified.
+     *
+     * @param that the other accumulator
+     * @throws IllegalArgumentException if {@code that} is {@code null}
+     */
+    public void merge(Accumulator that) {
+        if (that == null) throw new IllegalArgumentException("argument is null");
+        if (that.n == 0) return;
+        int total = n + that.n;
+        double delta = that.mu - mu;
+        mu += delta * that.n / total;
+        sum += that.sum + delta * delta * ((double) n * that.n / total);
+        n = total;
+        if (that.min < min) min = that.min;
+        if (that.max > max) max = that.max;
+    }
+
+    /**
+     * Returns the mean of the data values.
+     *
+     * @return the mean of the data values
+     */
+    public double mean() {
+        return mu;
+    }
+
+    /**
+     * Returns the smallest data value.
+     *
+     * @return the smallest data value; {@code Double.POSITIVE_INFINITY} if there are none
+     */
+    public double min() {
+        return min;
+    }
+
+    /**
+     * Returns the largest data value.
+     *
+     * @return the largest data value; {@code Double.NEGATIVE_INFINITY} if there are none
+     */
+    public double max() {
+        return max;
+    }
+
+    /**
+     * Returns the sample variance of the data values.
+     *
+     * @return the sample variance of the data values
+     */
+    public double var() {
+        if (n <= 1) return Double.NaN;
+        return sum / (n - 1);
+    }
+
+    /**
+     * Returns the sample standard deviation of the data values.
+     *
+     * @return the sample standard deviation of the data values
+     */
+    public double stddev() {
+        return Math.sqrt(this.var());
+    }
+
+    /**
+     * Returns the number of data values.
+     *
+     * @return the number of data values
+     */
+    public int count() {
+        return n;
+    }
+
+    /**
+     * Returns a string representation of this accumulator.
+     *
+     * @return a string representation of this accumulator
+     */
+    public String toString() {
+        return "n = " + n + ", mean = " + mean() + ", stddev = " + stddev() + ", min = " + min + ", max = " + max;
+    }
+
+    /**
+     * Unit tests the {@code Accumulator} data type.
+     * Reads in a stream of real number from standard input;
+     * adds them to the accumulator; and prints the mean,
+     * sample standard deviation, and sample variance to standard
+     * output.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        Accumulator stats = new Accumulator();
+        while (!StdIn.isEmpty()) {
+            double x = StdIn.readDouble();
+            stats.addDataValue(x);
+        }
+
+        StdOut.printf("n      = %d\n", stats.count());
+        StdOut.printf("mean   = %.5f\n", stats.mean());
+        StdOut.printf("stddev = %.5f\n", stats.stddev());
+        StdOut.printf("var    = %.5f\n", stats.var());
+        StdOut.printf("min    = %.5f\n", stats.min());
+        StdOut.printf("max    = %.5f\n", stats.max());
+        StdOut.println(stats);
+    }
+}
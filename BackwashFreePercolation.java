@@ -0,0 +1,135 @@
+/******************************************************************************
+ *  Dependencies: PercolationMetrics.java
+ *                UnionFind.java
+ *                WeightedQuickUnionUF.java
+ *
+ *  This class serves as an alternative API through which to model a percolation system.
+ *  It offers the same operations as Percolation, but avoids backwash with a single union-find structure
+ *  (rather than one with and one without a virtual bottom site) by recording, for the root of each component,
+ *  whether that component touches the top row and whether it touches the bottom row.
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+// Models a percolation system with NxN sites by using one union-find data structure plus per-root top/bottom flags.
+public class BackwashFreePercolation {
+    private static final byte OPEN = 1;                         // Status bit: site is open
+    private static final byte TOP = 2;                          // Status bit (meaningful on roots): component contains a top row site
+    private static final byte BOTTOM = 4;                       // Status bit (meaningful on roots): component contains a bottom row site
+
+    private static final int MAX_N = 46340;                     // Largest n for which n * n fits in an int
+    private final int n;                                        // Number of rows/columns
+    private int numOpen = 0;                                    // Number of open sites
+    private boolean percolates = false;                         // True once any component touches both the top and bottom rows
+    private final byte[] status;                                // Stores OPEN/TOP/BOTTOM bits for each site
+    private final UnionFind uf;                                 // Union Find structure of percolation system sites (no virtual sites)
+
+    // Creates n-by-n grid, with all sites initially blocked
+    public BackwashFreePercolation(int n) {
+        this(n, WeightedQuickUnionUF::new);
+    }
+
+    // Creates n-by-n grid, with all sites initially blocked, whose sites are tracked by a union-find structure built by engine
+    public BackwashFreePercolation(int n, IntFunction<UnionFind> engine) {
+        if (n <= 0)
+            throw new IllegalArgumentException("Argument must be greater than or equal to 1");
+        if (n > MAX_N)
+            throw new IllegalArgumentException("Argument must be at most " + MAX_N + " (use LargePercolation)");
+        if (engine == null)
+            throw new IllegalArgumentException("Union-find engine must not be null");
+
+        this.n = n;
+        status = new byte[n * n];                               // All sites start blocked, with no flags set
+        uf = engine.apply(n * n);
+    }
+
+    // Blocks every site again, restoring the state of a newly created n-by-n grid without reallocating it
+    public void reset() {
+        if (numOpen == 0)                                       // Nothing has been opened since the last reset
+            return;
+        Arrays.fill(status, (byte) 0);
+        numOpen = 0;
+        percolates = false;
+        uf.reset();
+    }
+
+    // Opens the site (row, col) if it is not open already (connects the site to any adjacent open sites)
+    public void open(int row, int col) {
+        if (row < 1 || col < 1 || row > n || col > n)
+            throw new IllegalArgumentException("row or column argument is outside of range");
+
+        row--;                                                  // Decrement row input to match our uf array structure
+        col--;                                                  // Decrement column input to match our uf array structure
+        int site = n * row + col;                               // Calculate index of site given grid row & column
+
+        if ((status[site] & OPEN) != 0)                         // Nothing to do if site is already open
+            return;
+
+        byte flags = OPEN;
+        if (row == 0) flags |= TOP;                             // Site in the top row is connected to the top
+        if (row == n - 1) flags |= BOTTOM;                      // Site in the bottom row is connected to the bottom
+        status[site] = flags;
+        numOpen++;
+
+        int root = site;                                        // A newly opened site is its own root
+        if (col != n - 1 && (status[site + 1] & OPEN) != 0)     // Connect to adjacent open site to the right
+            root = connect(root, site + 1);
+        if (col != 0 && (status[site - 1] & OPEN) != 0)         // Connect to adjacent open site to the left
+            root = connect(root, site - 1);
+        if (row != 0 && (status[site - n] & OPEN) != 0)         // Connect to adjacent open site above
+            root = connect(root, site - n);
+        if (row != n - 1 && (status[site + n] & OPEN) != 0)     // Connect to adjacent open site below
+            root = connect(root, site + n);
+
+        if ((status[root] & (TOP | BOTTOM)) == (TOP | BOTTOM))  // Component of the new site spans top to bottom
+            percolates = true;
+    }
+
+    // Merges the component rooted at root with the component containing neighbor, returning the merged root
+    // whose status carries the union of both components' flags
+    private int connect(int root, int neighbor) {
+        int other = uf.find(neighbor);
+        if (other == root)
+            return root;
+
+        byte flags = (byte) (status[root] | status[other]);
+        uf.union(root, other);
+        root = uf.find(root);
+        status[root] = flags;
+        return root;
+    }
+
+    // Returns true if the site (row, col) is open
+    public boolean isOpen(int row, int col) {
+        if (row < 1 || col < 1 || row > n || col > n)
+            throw new IllegalArgumentException("row or column argument is outside of range");
+
+        return (status[n * (row - 1) + (col - 1)] & OPEN) != 0;
+    }
+
+    // Returns true if the site at (row, col) is open and its component contains a top row site
+    public boolean isFull(int row, int col) {
+        if (row < 1 || col < 1 || row > n || col > n)
+            throw new IllegalArgumentException("row or column argument is outside of range");
+
+        int site = n * (row - 1) + (col - 1);
+        return (status[site] & OPEN) != 0 && (status[uf.find(site)] & TOP) != 0;
+    }
+
+    // Returns the number of open sites
+    public int numberOfOpenSites() {
+        return numOpen;
+    }
+
+    // Returns true if system percolates
+    public boolean percolates() {
+        return percolates;
+    }
+
+    // Returns a snapshot of the union-find operations recorded so far (empty unless PercolationMetrics.ENABLED)
+    public PercolationMetrics metrics() {
+        return uf.metrics();
+    }
+}
@@ -0,0 +1,189 @@
+/******************************************************************************
+ *  Dependencies: PercolationMetrics.java
+ *                PercolationModel.java
+ *                UnionFind.java
+ *                WeightedQuickUnionUF.java
+ *
+ *  This class models bond percolation on an n-by-n square grid. Every site is present; what opens are the bonds
+ *  between horizontally or vertically adjacent sites, and the system percolates when open bonds connect a site in the
+ *  top row to a site in the bottom row. The threshold is 1/2.
+ *
+ *  The grid has n * (n - 1) horizontal bonds followed by (n - 1) * n vertical bonds, numbered for PercolationModel as
+ *      horizontal bond between (row, col) and (row, col + 1):  (row - 1) * (n - 1) + (col - 1)
+ *      vertical bond between (row, col) and (row + 1, col):    n * (n - 1) + (row - 1) * n + (col - 1)
+ *  so that PercolationTrial and PercolationStats open bonds in random order through the same int[] permutation they
+ *  use for sites. Open bonds are recorded one bit per bond, and, as in BackwashFreePercolation, the root of each
+ *  component records whether the component touches the top and bottom rows.
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+// Models bond percolation on an NxN grid by using one union-find data structure over sites plus per-root top/bottom flags.
+public class BondPercolation implements PercolationModel {
+    private static final byte TOP = 1;                          // Status bit (meaningful on roots): component contains a top row site
+    private static final byte BOTTOM = 2;                       // Status bit (meaningful on roots): component contains a bottom row site
+
+    private static final int MAX_N = 32768;                     // Largest n for which 2 * n * (n - 1) bonds fit in an int
+    private final int n;                                        // Number of rows/columns
+    private final int horizontal;                               // Number of horizontal bonds (index of the first vertical bond)
+    private final int bonds;                                    // Number of bonds
+    private int numOpen = 0;                                    // Number of open bonds
+    private boolean percolates = false;                         // True once any component touches both the top and bottom rows
+    private final long[] openStatus;                            // Bit (bond & 63) of word (bond >>> 6) is set if corresponding bond is open
+    private final byte[] status;                                // Stores TOP/BOTTOM bits for each site
+    private final UnionFind uf;                                 // Union Find structure of grid sites
+
+    // Creates n-by-n grid, with all bonds initially closed
+    public BondPercolation(int n) {
+        this(n, WeightedQuickUnionUF::new);
+    }
+
+    // Creates n-by-n grid, with all bonds initially closed, whose sites are tracked by a union-find structure built by
+    // engine
+    public BondPercolation(int n, IntFunction<UnionFind> engine) {
+        if (n < 2)
+            throw new IllegalArgumentException("Argument must be greater than or equal to 2");
+        if (n > MAX_N)
+            throw new IllegalArgumentException("Argument must be at most " + MAX_N);
+        if (engine == null)
+            throw new IllegalArgumentException("Union-find engine must not be null");
+
+        this.n = n;
+        this.horizontal = n * (n - 1);
+        this.bonds = 2 * horizontal;
+        openStatus = new long[(bonds + 63) >>> 6];              // Initialize one bit per bond, all closed
+        status = new byte[n * n];
+        markRows();
+        uf = engine.apply(n * n);
+    }
+
+    // Closes every bond again, restoring the state of a newly created n-by-n grid without reallocating it
+    public void reset() {
+        if (numOpen == 0)                                       // Nothing has been opened since the last reset
+            return;
+        Arrays.fill(openStatus, 0L);
+        Arrays.fill(status, (byte) 0);
+        markRows();
+        numOpen = 0;
+        percolates = false;
+        uf.reset();
+    }
+
+    // Flags each site of the top and bottom rows, each its own component
+    private void markRows() {
+        Arrays.fill(status, 0, n, TOP);
+        Arrays.fill(status, n * (n - 1), n * n, BOTTOM);
+    }
+
+    // Returns true if the bit for bond is set
+    private boolean isOpenBond(int bond) {
+        return (openStatus[bond >>> 6] & (1L << bond)) != 0;
+    }
+
+    // Opens the bond between sites (row, col) and (row, col + 1) if it is not open already
+    public void openHorizontal(int row, int col) {
+        if (row < 1 || col < 1 || row > n || col > n - 1)
+            throw new IllegalArgumentException("row or column argument is outside of range");
+        openBond((row - 1) * (n - 1) + (col - 1));
+    }
+
+    // Opens the bond between sites (row, col) and (row + 1, col) if it is not open already
+    public void openVertical(int row, int col) {
+        if (row < 1 || col < 1 || row > n - 1 || col > n)
+            throw new IllegalArgumentException("row or column argument is outside of range");
+        openBond(horizontal + (row - 1) * n + (col - 1));
+    }
+
+    // Opens bondIndices[from] through bondIndices[to - 1], numbered as described above, in order, stopping as soon as
+    // the system percolates (see PercolationModel)
+    public int openAll(int[] bondIndices, int from, int to) {
+        if (bondIndices == null)
+            throw new IllegalArgumentException("argument is null");
+        if (from < 0 || to > bondIndices.length || from > to)
+            throw new IllegalArgumentException("from or to argument is outside of range");
+
+        boolean percolated = percolates;
+        for (int i = from; i < to; i++) {
+            int bond = bondIndices[i];
+            if (bond < 0 || bond >= bonds)
+                throw new IllegalArgumentException("bond index " + bond + " is outside of range");
+            openBond(bond);
+            if (!percolated && percolates)
+                return i;
+        }
+        return -1;
+    }
+
+    // Opens the bond with the given index if it is not open already, connecting the two sites it joins
+    private void openBond(int bond) {
+        if (isOpenBond(bond))                                   // Nothing to do if bond is already open
+            return;
+        openStatus[bond >>> 6] |= 1L << bond;                   // Open the bond
+        numOpen++;
+
+        int p;                                                  // Sites joined by the bond
+        int q;
+        if (bond < horizontal) {                                // Horizontal bond: site p and the site to its right
+            int row = bond / (n - 1);
+            p = bond + row;                                     // n * row + col, as bond = (n - 1) * row + col
+            q = p + 1;
+        } else {                                                // Vertical bond: site p and the site below it
+            p = bond - horizontal;
+            q = p + n;
+        }
+
+        int rootP = uf.find(p);
+        int rootQ = uf.find(q);
+        if (rootP == rootQ)
+            return;
+        byte flags = (byte) (status[rootP] | status[rootQ]);
+        uf.union(rootP, rootQ);
+        int root = uf.find(rootP);
+        status[root] = flags;
+        if (flags == (TOP | BOTTOM))                            // Merged component spans top to bottom
+            percolates = true;
+    }
+
+    // Returns true if the bond between sites (row, col) and (row, col + 1) is open
+    public boolean isHorizontalOpen(int row, int col) {
+        if (row < 1 || col < 1 || row > n || col > n - 1)
+            throw new IllegalArgumentException("row or column argument is outside of range");
+        return isOpenBond((row - 1) * (n - 1) + (col - 1));
+    }
+
+    // Returns true if the bond between sites (row, col) and (row + 1, col) is open
+    public boolean isVerticalOpen(int row, int col) {
+        if (row < 1 || col < 1 || row > n - 1 || col > n)
+            throw new IllegalArgumentException("row or column argument is outside of range");
+        return isOpenBond(horizontal + (row - 1) * n + (col - 1));
+    }
+
+    // Returns true if site (row, col) is connected to a top row site through open bonds
+    public boolean isFull(int row, int col) {
+        if (row < 1 || col < 1 || row > n || col > n)
+            throw new IllegalArgumentException("row or column argument is outside of range");
+        return (status[uf.find(n * (row - 1) + (col - 1))] & TOP) != 0;
+    }
+
+    // Returns the number of bonds in the grid (the elements a trial opens)
+    public int size() {
+        return bonds;
+    }
+
+    // Returns the number of open bonds (the elements a trial opens)
+    public int numberOfOpenSites() {
+        return numOpen;
+    }
+
+    // Returns true if system percolates
+    public boolean percolates() {
+        return percolates;
+    }
+
+    // Returns a snapshot of the union-find operations recorded so far (empty unless PercolationMetrics.ENABLED)
+    public PercolationMetrics metrics() {
+        return uf.metrics();
+    }
+}
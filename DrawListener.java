@@ -0,0 +1,47 @@
+/******************************************************************************
+ *  Compilation:  javac DrawListener.java
+ *  Dependencies: none
+ *
+ *  Callbacks for mouse events on the standard drawing window, so that
+ *  interactive programs can react to the mouse instead of polling it.
+ *
+ ******************************************************************************/
+
+/**
+ * The {@code DrawListener} interface receives mouse events from
+ * {@link StdDraw}. Register an implementation with
+ * {@link StdDraw#addListener(DrawListener)}.
+ * <p>
+ * Coordinates are given in the user coordinate system of the canvas (as
+ * set by {@code StdDraw.setXscale()} and {@code StdDraw.setYscale()}),
+ * the same as {@link StdDraw#mouseX()} and {@link StdDraw#mouseY()}.
+ * Callbacks run on the event dispatch thread, so they should return
+ * quickly and must not draw; hand the work to the drawing thread instead.
+ * Every method has an empty default implementation.
+ */
+public interface DrawListener {
+
+    /**
+     * Invoked when a mouse button is pressed.
+     *
+     * @param x the <em>x</em>-coordinate of the mouse
+     * @param y the <em>y</em>-coordinate of the mouse
+     */
+    default void mousePressed(double x, double y) { }
+
+    /**
+     * Invoked when the mouse is moved with a button pressed.
+     *
+     * @param x the <em>x</em>-coordinate of the mouse
+     * @param y the <em>y</em>-coordinate of the mouse
+     */
+    default void mouseDragged(double x, double y) { }
+
+    /**
+     * Invoked when a mouse button is released.
+     *
+     * @param x the <em>x</em>-coordinate of the mouse
+     * @param y the <em>y</em>-coordinate of the mouse
+     */
+    default void mouseReleased(double x, double y) { }
+}
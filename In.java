@@ -8,15 +8,18 @@
  ******************************************************************************/
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.net.URL;
 import java.net.Socket;
 // import java.net.HttpURLConnection;
 import java.net.URLConnection;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.InputMismatchException;
 import java.util.Locale;
 import java.util.NoSuchElementException;
@@ -46,6 +49,15 @@ import java.util.regex.Pattern;
  *  consist of \n, \r, \r\n, and Unicode hex code points 0x2028, 0x2029, 0x0085;
  *  see <a href="http://www.docjar.com/html/api/java/util/Scanner.java.html">
  *  Scanner.java</a> (NB: Java 6u23 and earlier uses only \r, \r, \r\n).
+ *  <p>
+ *  Input streams opened from a file, URL, socket or standard input read
+ *  integers with {@link #readInt()} and {@link #readAllInts()} (and test
+ *  {@link #isEmpty()}) through a byte-level tokenizer that uses no regular
+ *  expressions and allocates no strings. The first time any other method is
+ *  called, or a token is met that the tokenizer does not handle (anything but
+ *  ASCII whitespace and plain decimal integers), the remaining input is handed
+ *  to a {@link Scanner}, so results are the same as reading with the scanner
+ *  throughout.
  *
  *  @author David Pritchard
  *  @author Robert Sedgewick
@@ -74,14 +86,27 @@ public final class In {
 
     //// end: section (1 of 2) of code duplicated from In to StdIn.
 
-    private Scanner scanner;
+    // size of the byte-level tokenizer's buffer
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // longest token the byte-level tokenizer parses before handing over to the scanner
+    private static final int MAX_INT_TOKEN = 32;
+
+    // results of skipping whitespace with the byte-level tokenizer
+    private static final int EOF = 0, TOKEN = 1, UNKNOWN = 2;
+
+    private Scanner scanner;    // created on first use by a method the byte-level tokenizer does not handle
+    private InputStream stream; // raw input read by the byte-level tokenizer until the scanner is created
+    private byte[] buffer;      // bytes read from stream by the byte-level tokenizer
+    private int position;       // index in buffer of the next unconsumed byte
+    private int limit;          // number of bytes read into buffer
+    private int lastInt;        // value parsed by the last successful call to parseInt()
 
    /**
      * Initializes an input stream from standard input.
      */
     public In() {
-        scanner = new Scanner(new BufferedInputStream(System.in), CHARSET_NAME);
-        scanner.useLocale(LOCALE);
+        open(System.in);
     }
 
    /**
@@ -95,8 +120,7 @@ public final class In {
         if (socket == null) throw new IllegalArgumentException("socket argument is null");
         try {
             InputStream is = socket.getInputStream();
-            scanner = new Scanner(new BufferedInputStream(is), CHARSET_NAME);
-            scanner.useLocale(LOCALE);
+            open(is);
         }
         catch (IOException ioe) {
             throw new IllegalArgumentException("Could not open " + socket, ioe);
@@ -115,8 +139,7 @@ public final class In {
         try {
             URLConnection site = url.openConnection();
             InputStream is     = site.getInputStream();
-            scanner            = new Scanner(new BufferedInputStream(is), CHARSET_NAME);
-            scanner.useLocale(LOCALE);
+            open(is);
         }
         catch (IOException ioe) {
             throw new IllegalArgumentException("Could not open " + url, ioe);
@@ -133,11 +156,10 @@ public final class In {
     public In(File file) {
         if (file == null) throw new IllegalArgumentException("file argument is null");
         try {
-            // for consistency with StdIn, wrap with BufferedInputStream instead of use
+            // for consistency with StdIn, read the stream instead of using
             // file as argument to Scanner
             FileInputStream fis = new FileInputStream(file);
-            scanner = new Scanner(new BufferedInputStream(fis), CHARSET_NAME);
-            scanner.useLocale(LOCALE);
+            open(fis);
         }
         catch (IOException ioe) {
             throw new IllegalArgumentException("Could not open " + file, ioe);
@@ -160,11 +182,10 @@ public final class In {
             // first try to read file from local file system
             File file = new File(name);
             if (file.exists()) {
-                // for consistency with StdIn, wrap with BufferedInputStream instead of use
+                // for consistency with StdIn, read the stream instead of using
                 // file as argument to Scanner
                 FileInputStream fis = new FileInputStream(file);
-                scanner = new Scanner(new BufferedInputStream(fis), CHARSET_NAME);
-                scanner.useLocale(LOCALE);
+                open(fis);
                 return;
             }
 
@@ -188,8 +209,7 @@ public final class In {
             // site.addRequestProperty("User-Agent", "Mozilla/4.76");
 
             InputStream is     = site.getInputStream();
-            scanner            = new Scanner(new BufferedInputStream(is), CHARSET_NAME);
-            scanner.useLocale(LOCALE);
+            open(is);
         }
         catch (IOException ioe) {
             throw new IllegalArgumentException("Could not open " + name, ioe);
@@ -217,7 +237,94 @@ public final class In {
      * @return {@code true} if this input stream exists; {@code false} otherwise
      */
     public boolean exists()  {
-        return scanner != null;
+        return scanner != null || stream != null;
+    }
+
+    // reads from is with the byte-level tokenizer until the scanner is needed
+    private void open(InputStream is) {
+        stream = is;
+        buffer = new byte[BUFFER_SIZE];
+    }
+
+    // returns the scanner, creating it on first use over the input not yet consumed by the byte-level tokenizer
+    private Scanner scanner() {
+        if (scanner == null) {
+            InputStream rest = stream;
+            if (position < limit)
+                rest = new SequenceInputStream(new ByteArrayInputStream(buffer, position, limit - position), stream);
+            scanner = new Scanner(new BufferedInputStream(rest), CHARSET_NAME);
+            scanner.useLocale(LOCALE);
+            stream = null;
+            buffer = null;
+        }
+        return scanner;
+    }
+
+    // makes at least min unconsumed bytes available in buffer, unless the input ends first;
+    // returns the number of unconsumed bytes available
+    private int fill(int min) {
+        if (limit - position >= min) return limit - position;
+        if (min > buffer.length) buffer = Arrays.copyOf(buffer, Math.max(min, 2 * buffer.length));
+        System.arraycopy(buffer, position, buffer, 0, limit - position);
+        limit -= position;
+        position = 0;
+        try {
+            while (limit < min) {
+                int read = stream.read(buffer, limit, buffer.length - limit);
+                if (read < 0) break;
+                limit += read;
+            }
+        }
+        catch (IOException ioe) {
+            throw new IllegalStateException("Could not read input", ioe);
+        }
+        return limit;
+    }
+
+    // skips ASCII whitespace with the byte-level tokenizer; returns EOF at the end of the input, TOKEN before
+    // an ASCII token, or UNKNOWN before a non-ASCII byte (which could be Unicode whitespace)
+    private int skipWhitespace() {
+        while (true) {
+            if (position == limit && fill(1) == 0) return EOF;
+            byte b = buffer[position];
+            if (b < 0) return UNKNOWN;
+            if (!Character.isWhitespace(b)) return TOKEN;
+            position++;
+        }
+    }
+
+    // looks past ASCII whitespace like skipWhitespace(), but consumes nothing (as Scanner.hasNext() does not)
+    private int peekWhitespace() {
+        for (int offset = 0; ; offset++) {
+            if (position + offset == limit && fill(offset + 1) <= offset) return EOF;
+            byte b = buffer[position + offset];
+            if (b < 0) return UNKNOWN;
+            if (!Character.isWhitespace(b)) return TOKEN;
+        }
+    }
+
+    // parses the next token as a plain decimal int (optional minus sign, then at most 10 digits, followed by
+    // whitespace or the end of the input) with the byte-level tokenizer, storing it in lastInt;
+    // returns false, consuming nothing but whitespace, if the scanner is needed instead
+    private boolean parseInt() {
+        if (scanner != null || skipWhitespace() != TOKEN) return false;
+        fill(MAX_INT_TOKEN);
+        int i = position;
+        boolean negative = buffer[i] == '-';
+        if (negative) i++;
+        long value = 0;
+        int digits = 0;
+        while (i < limit && digits <= 10 && buffer[i] >= '0' && buffer[i] <= '9') {
+            value = 10 * value + (buffer[i++] - '0');
+            digits++;
+        }
+        boolean terminated = i < limit ? buffer[i] >= 0 && Character.isWhitespace(buffer[i])
+                                       : limit - position < MAX_INT_TOKEN;  // token ends at the end of the input
+        if (negative) value = -value;
+        if (digits == 0 || digits > 10 || !terminated || value != (int) value) return false;
+        position = i;
+        lastInt = (int) value;
+        return true;
     }
     
     ////  begin: section (2 of 2) of code duplicated from In to StdIn,
@@ -232,7 +339,11 @@ public final class In {
      *         {@code false} otherwise
      */
     public boolean isEmpty() {
-        return !scanner.hasNext();
+        if (scanner == null && stream != null) {
+            int next = peekWhitespace();
+            if (next != UNKNOWN) return next == EOF;
+        }
+        return !scanner().hasNext();
     }
 
    /** 
@@ -245,7 +356,7 @@ public final class In {
      *         {@code false} otherwise
      */
     public boolean hasNextLine() {
-        return scanner.hasNextLine();
+        return scanner().hasNextLine();
     }
 
     /**
@@ -257,9 +368,9 @@ public final class In {
      *         {@code false} otherwise   
      */
     public boolean hasNextChar() {
-        scanner.useDelimiter(EMPTY_PATTERN);
-        boolean result = scanner.hasNext();
-        scanner.useDelimiter(WHITESPACE_PATTERN);
+        scanner().useDelimiter(EMPTY_PATTERN);
+        boolean result = scanner().hasNext();
+        scanner().useDelimiter(WHITESPACE_PATTERN);
         return result;
     }
 
@@ -272,7 +383,7 @@ public final class In {
     public String readLine() {
         String line;
         try {
-            line = scanner.nextLine();
+            line = scanner().nextLine();
         }
         catch (NoSuchElementException e) {
             line = null;
@@ -287,12 +398,12 @@ public final class In {
      * @throws NoSuchElementException if the input stream is empty
      */
     public char readChar() {
-        scanner.useDelimiter(EMPTY_PATTERN);
+        scanner().useDelimiter(EMPTY_PATTERN);
         try {
-            String ch = scanner.next();
+            String ch = scanner().next();
             assert ch.length() == 1 : "Internal (Std)In.readChar() error!"
                 + " Please contact the authors.";
-            scanner.useDelimiter(WHITESPACE_PATTERN);
+            scanner().useDelimiter(WHITESPACE_PATTERN);
             return ch.charAt(0);
         }
         catch (NoSuchElementException e) {
@@ -308,12 +419,12 @@ public final class In {
      * @return the remainder of this input stream, as a string
      */
     public String readAll() {
-        if (!scanner.hasNextLine())
+        if (!scanner().hasNextLine())
             return "";
 
-        String result = scanner.useDelimiter(EVERYTHING_PATTERN).next();
+        String result = scanner().useDelimiter(EVERYTHING_PATTERN).next();
         // not that important to reset delimeter, since now scanner is empty
-        scanner.useDelimiter(WHITESPACE_PATTERN); // but let's do it anyway
+        scanner().useDelimiter(WHITESPACE_PATTERN); // but let's do it anyway
         return result;
     }
 
@@ -326,7 +437,7 @@ public final class In {
      */
     public String readString() {
         try {
-            return scanner.next();
+            return scanner().next();
         }
         catch (NoSuchElementException e) {
             throw new NoSuchElementException("attempts to read a 'String' value from the input stream, "
@@ -343,11 +454,12 @@ public final class In {
      * @throws InputMismatchException if the next token cannot be parsed as an {@code int}
      */
     public int readInt() {
+        if (parseInt()) return lastInt;
         try {
-            return scanner.nextInt();
+            return scanner().nextInt();
         }
         catch (InputMismatchException e) {
-            String token = scanner.next();
+            String token = scanner().next();
             throw new InputMismatchException("attempts to read an 'int' value from the input stream, "
                                            + "but the next token is \"" + token + "\"");
         }
@@ -367,10 +479,10 @@ public final class In {
      */
     public double readDouble() {
         try {
-            return scanner.nextDouble();
+            return scanner().nextDouble();
         }
         catch (InputMismatchException e) {
-            String token = scanner.next();
+            String token = scanner().next();
             throw new InputMismatchException("attempts to read a 'double' value from the input stream, "
                                            + "but the next token is \"" + token + "\"");
         }
@@ -390,10 +502,10 @@ public final class In {
      */
     public float readFloat() {
         try {
-            return scanner.nextFloat();
+            return scanner().nextFloat();
         }
         catch (InputMismatchException e) {
-            String token = scanner.next();
+            String token = scanner().next();
             throw new InputMismatchException("attempts to read a 'float' value from the input stream, "
                                            + "but the next token is \"" + token + "\"");
         }
@@ -413,10 +525,10 @@ public final class In {
      */
     public long readLong() {
         try {
-            return scanner.nextLong();
+            return scanner().nextLong();
         }
         catch (InputMismatchException e) {
-            String token = scanner.next();
+            String token = scanner().next();
             throw new InputMismatchException("attempts to read a 'long' value from the input stream, "
                                            + "but the next token is \"" + token + "\"");
         }
@@ -436,10 +548,10 @@ public final class In {
      */
     public short readShort() {
         try {
-            return scanner.nextShort();
+            return scanner().nextShort();
         }
         catch (InputMismatchException e) {
-            String token = scanner.next();
+            String token = scanner().next();
             throw new InputMismatchException("attempts to read a 'short' value from the input stream, "
                                            + "but the next token is \"" + token + "\"");
         }
@@ -461,10 +573,10 @@ public final class In {
      */
     public byte readByte() {
         try {
-            return scanner.nextByte();
+            return scanner().nextByte();
         }
         catch (InputMismatchException e) {
-            String token = scanner.next();
+            String token = scanner().next();
             throw new InputMismatchException("attempts to read a 'byte' value from the input stream, "
                                            + "but the next token is \"" + token + "\"");
         }
@@ -539,10 +651,20 @@ public final class In {
      * @return all remaining lines in this input stream, as an array of integers
      */
     public int[] readAllInts() {
+        int[] vals = new int[16];
+        int n = 0;
+        while (parseInt()) {
+            if (n == vals.length) vals = Arrays.copyOf(vals, 2 * n);
+            vals[n++] = lastInt;
+        }
+        if (scanner == null && stream != null && skipWhitespace() == EOF)
+            return Arrays.copyOf(vals, n);
+
+        // hand whatever the byte-level tokenizer could not parse to the scanner
         String[] fields = readAllStrings();
-        int[] vals = new int[fields.length];
+        vals = Arrays.copyOf(vals, n + fields.length);
         for (int i = 0; i < fields.length; i++)
-            vals[i] = Integer.parseInt(fields[i]);
+            vals[n + i] = Integer.parseInt(fields[i]);
         return vals;
     }
 
@@ -580,7 +702,16 @@ public final class In {
      * Closes this input stream.
      */
     public void close() {
-        scanner.close();  
+        if (scanner != null) {
+            scanner.close();
+            return;
+        }
+        try {
+            if (stream != null) stream.close();
+        }
+        catch (IOException ioe) {
+            // nothing useful to do: like Scanner.close(), ignore
+        }
     }
 
     /**
@@ -2,60 +2,145 @@
  *  Compilation:  javac InteractivePercolationVisualizer.java
  *  Execution:    java InteractivePercolationVisualizer n
  *
- *  Dependencies: Percolation.java
- *                PercolationVisualizer.java
+ *  Dependencies: DrawListener.java
+ *                Percolation.java
+ *                PercolationRenderer.java
  *                StdDraw.java
  *                StdOut.java
  *
  *  This program takes the grid size n as a command-line argument.
- *  Then, the user repeatedly clicks sites to open with the mouse.
+ *  Then, the user repeatedly clicks sites to open with the mouse, or
+ *  drags across the grid to open every site along the way.
  *  After each site is opened, it draws full sites in light blue,
  *  open sites (that aren't full) in white, and blocked sites in black.
  *
+ *  Mouse callbacks only translate the mouse position into sites and append
+ *  them to a shared first-in first-out queue of pending sites, which holds
+ *  each site at most once, so it never fills up and no input is ever lost
+ *  however fast the mouse moves. The main thread sleeps until a site is
+ *  pending, takes and opens every pending site in the order it was clicked
+ *  (so the echoed "row col" lines replay faithfully in PercolationVisualizer),
+ *  and redraws (only the changed sites) once per batch, and only if some site
+ *  was actually opened.
+ *
  ******************************************************************************/
 
-public class InteractivePercolationVisualizer {
+import java.util.BitSet;
 
-    public static void main(String[] args) {
-        // n-by-n percolation system (read from command-line, default = 10)
-        int n = 10;
-        if (args.length == 1) n = Integer.parseInt(args[0]);
+public class InteractivePercolationVisualizer implements DrawListener {
+    private final int n;                                    // Number of rows/columns
+    private final int[] queue;                              // Pending sites in click order, a circular buffer; guarded by this
+    private final BitSet queued;                            // Sites currently in queue, so each is queued at most once; guarded by this
+    private int head = 0;                                   // Index in queue of the oldest pending site; guarded by this
+    private int size = 0;                                   // Number of pending sites; guarded by this
+    private final int[] batch;                              // Sites taken by the drawing thread, reused for every batch
+    private int last = -1;                                  // Site under the mouse at the last event, or -1 off the grid
 
-        // repeatedly open site specified my mouse click and draw resulting system
-        StdOut.println(n);
+    private InteractivePercolationVisualizer(int n) {
+        this.n = n;
+        queue = new int[n * n];
+        queued = new BitSet(n * n);
+        batch = new int[n * n];
+    }
 
-        StdDraw.enableDoubleBuffering();
-        Percolation perc = new Percolation(n);
-        PercolationVisualizer.draw(perc, n);
-        StdDraw.show();
+    // Appends a site for the drawing thread unless it is already pending, so the queue cannot overflow
+    private synchronized void mark(int site) {
+        if (queued.get(site))
+            return;
+        queued.set(site);
+        queue[(head + size++) % queue.length] = site;
+        notify();
+    }
 
-        while (true) {
+    // Waits until some site is pending, then moves all pending sites, oldest first, into batch;
+    // returns their number
+    private synchronized int takeAll() throws InterruptedException {
+        while (size == 0)
+            wait();
+        int count = size;
+        for (int k = 0; k < count; k++) {
+            int site = queue[head];
+            batch[k] = site;
+            queued.clear(site);
+            head = (head + 1) % queue.length;
+        }
+        size = 0;
+        return count;
+    }
 
-            // detected mouse click
-            if (StdDraw.isMousePressed()) {
+    @Override
+    public void mousePressed(double x, double y) {
+        last = -1;
+        mouseDragged(x, y);
+    }
+
+    // Marks every site on the line from the previous mouse position, so fast drags leave no gaps
+    @Override
+    public void mouseDragged(double x, double y) {
+        // convert to row i, column j
+        int i = (int) (n - Math.floor(y));
+        int j = (int) (1 + Math.floor(x));
+        if (i < 1 || i > n || j < 1 || j > n) {
+            last = -1;
+            return;
+        }
+        int site = n * (i - 1) + (j - 1);
+        if (site == last)
+            return;
 
-                // screen coordinates
-                double x = StdDraw.mouseX();
-                double y = StdDraw.mouseY();
+        if (last >= 0) {
+            int i0 = last / n + 1;
+            int j0 = last % n + 1;
+            int steps = Math.max(Math.abs(i - i0), Math.abs(j - j0));
+            for (int k = 1; k < steps; k++) {
+                int ik = i0 + Math.round((float) (i - i0) * k / steps);
+                int jk = j0 + Math.round((float) (j - j0) * k / steps);
+                mark(n * (ik - 1) + (jk - 1));
+            }
+        }
+        mark(site);                                         // Never waits on the drawing thread beyond the brief lock
+        last = site;
+    }
 
-                // convert to row i, column j
-                int i = (int) (n - Math.floor(y));
-                int j = (int) (1 + Math.floor(x));
+    @Override
+    public void mouseReleased(double x, double y) {
+        last = -1;
+    }
 
-                // open site (i, j) provided it's in bounds
-                if (i >= 1 && i <= n && j >= 1 && j <= n) {
-                    if (!perc.isOpen(i, j)) {
-                        StdOut.println(i + " " + j);
-                    }
-                    perc.open(i, j);
-                }
+    // Opens pending sites as they arrive, redrawing after each batch that opened something
+    private void run() throws InterruptedException {
+        StdDraw.enableDoubleBuffering();
+        Percolation perc = new Percolation(n);
+        PercolationRenderer renderer = new PercolationRenderer(perc, n);
+        renderer.show();
+        StdDraw.addListener(this);
 
-                // draw n-by-n percolation system
-                PercolationVisualizer.draw(perc, n);
-                StdDraw.show();
+        while (true) {
+            boolean changed = false;
+            int count = takeAll();
+            for (int k = 0; k < count; k++) {
+                int site = batch[k];
+                int i = site / n + 1;
+                int j = site % n + 1;
+                if (perc.isOpen(i, j))
+                    continue;
+                StdOut.println(i + " " + j);
+                perc.open(i, j);
+                renderer.opened(i, j);
+                changed = true;
             }
-
-            StdDraw.pause(20);
+            if (changed)
+                renderer.show();
         }
     }
+
+    public static void main(String[] args) throws InterruptedException {
+        // n-by-n percolation system (read from command-line, default = 10)
+        int n = 10;
+        if (args.length == 1) n = Integer.parseInt(args[0]);
+
+        // repeatedly open sites specified by mouse clicks and drags and draw resulting system
+        StdOut.println(n);
+        new InteractivePercolationVisualizer(n).run();
+    }
 }
@@ -0,0 +1,135 @@
+/******************************************************************************
+ *  Dependencies: OffHeapUnionFind.java
+ *
+ *  This class serves as an API through which to model percolation systems too large for Percolation, whose n*n + 2
+ *  site indices must fit in an int (n <= 46,340). Sites are indexed by long, and both the union-find structure and
+ *  the per-site status bytes live in off-heap direct buffers, so a grid with billions of sites neither exceeds the
+ *  Java array size limit nor adds to garbage collection work.
+ *  The number of sites is bounded by OffHeapUnionFind.MAX_ELEMENTS (n <= MAX_N = 2^29 - 1), but in practice by memory.
+ *  As in BackwashFreePercolation, one union-find structure is used with no virtual sites: each site has an OPEN bit,
+ *  and each component root carries TOP and BOTTOM bits recording whether the component touches the top or bottom row.
+ *  Memory use is 9 bytes per site, all of it in direct buffers, which the JVM caps at -XX:MaxDirectMemorySize (by default
+ *  the maximum heap size); run large grids with that flag raised to at least 9 * n * n bytes, e.g.
+ *  java -XX:MaxDirectMemorySize=24g for n = 50,000, or allocation fails with an OutOfMemoryError for direct buffer memory.
+ *
+ ******************************************************************************/
+
+import java.nio.ByteBuffer;
+
+// Models a percolation system with NxN sites using off-heap storage; at 9 bytes per site, memory bounds N^2 (about 9 GB per billion sites).
+public class LargePercolation {
+    private static final int MAX_N = (1 << 29) - 1;             // Largest n such that n*n sites fit in OffHeapUnionFind.MAX_ELEMENTS
+    private static final byte OPEN = 1;                         // Status bit: site is open
+    private static final byte TOP = 2;                          // Status bit (meaningful on roots): component contains a top row site
+    private static final byte BOTTOM = 4;                       // Status bit (meaningful on roots): component contains a bottom row site
+    private static final int SEGMENT_BITS = 30;                 // 2^30 status bytes = 1 GiB per direct buffer
+    private static final int SEGMENT_MASK = (1 << SEGMENT_BITS) - 1;
+
+    private final int n;                                        // Number of rows/columns
+    private final long nSquared;                                // Number of sites in grid
+    private long numOpen = 0;                                   // Number of open sites
+    private boolean percolates = false;                         // True once any component touches both the top and bottom rows
+    private final ByteBuffer[] status;                          // Status bits of site i are at status[i >>> 30].get(i & mask)
+    private final OffHeapUnionFind uf;                          // Union Find structure of percolation system sites (no virtual sites)
+
+    // Creates n-by-n grid, with all sites initially blocked
+    public LargePercolation(int n) {
+        if (n <= 0)
+            throw new IllegalArgumentException("Argument must be greater than or equal to 1");
+        if (n > MAX_N)
+            throw new IllegalArgumentException("Argument must be at most " + MAX_N);
+
+        this.n = n;
+        this.nSquared = (long) n * n;
+        int numSegments = (int) ((nSquared + SEGMENT_MASK) >>> SEGMENT_BITS);
+        status = new ByteBuffer[numSegments];
+        for (int s = 0; s < numSegments; s++)                   // Direct buffers are allocated zeroed: all sites blocked
+            status[s] = ByteBuffer.allocateDirect((int) Math.min(1L << SEGMENT_BITS, nSquared - ((long) s << SEGMENT_BITS)));
+        uf = new OffHeapUnionFind(nSquared);
+    }
+
+    private byte getStatus(long site) {
+        return status[(int) (site >>> SEGMENT_BITS)].get((int) (site & SEGMENT_MASK));
+    }
+
+    private void setStatus(long site, byte flags) {
+        status[(int) (site >>> SEGMENT_BITS)].put((int) (site & SEGMENT_MASK), flags);
+    }
+
+    private boolean isOpenSite(long site) {
+        return (getStatus(site) & OPEN) != 0;
+    }
+
+    // Opens the site (row, col) if it is not open already (connects the site to any adjacent open sites)
+    public void open(int row, int col) {
+        if (row < 1 || col < 1 || row > n || col > n)
+            throw new IllegalArgumentException("row or column argument is outside of range");
+
+        row--;                                                  // Decrement row input to match our uf array structure
+        col--;                                                  // Decrement column input to match our uf array structure
+        long site = (long) n * row + col;                       // Calculate index of site given grid row & column
+
+        if (isOpenSite(site))                                   // Nothing to do if site is already open
+            return;
+
+        byte flags = OPEN;
+        if (row == 0) flags |= TOP;                             // Site in the top row is connected to the top
+        if (row == n - 1) flags |= BOTTOM;                      // Site in the bottom row is connected to the bottom
+        setStatus(site, flags);
+        numOpen++;
+
+        long root = site;                                       // A newly opened site is its own root
+        if (col != n - 1 && isOpenSite(site + 1))               // Connect to adjacent open site to the right
+            root = connect(root, site + 1);
+        if (col != 0 && isOpenSite(site - 1))                   // Connect to adjacent open site to the left
+            root = connect(root, site - 1);
+        if (row != 0 && isOpenSite(site - n))                   // Connect to adjacent open site above
+            root = connect(root, site - n);
+        if (row != n - 1 && isOpenSite(site + n))               // Connect to adjacent open site below
+            root = connect(root, site + n);
+
+        if ((getStatus(root) & (TOP | BOTTOM)) == (TOP | BOTTOM))   // Component of the new site spans top to bottom
+            percolates = true;
+    }
+
+    // Merges the component rooted at root with the component containing neighbor, returning the merged root
+    // whose status carries the union of both components' flags
+    private long connect(long root, long neighbor) {
+        long other = uf.find(neighbor);
+        if (other == root)
+            return root;
+
+        byte flags = (byte) (getStatus(root) | getStatus(other));
+        uf.union(root, other);
+        root = uf.find(root);
+        setStatus(root, flags);
+        return root;
+    }
+
+    // Returns true if the site (row, col) is open
+    public boolean isOpen(int row, int col) {
+        if (row < 1 || col < 1 || row > n || col > n)
+            throw new IllegalArgumentException("row or column argument is outside of range");
+
+        return isOpenSite((long) n * (row - 1) + (col - 1));
+    }
+
+    // Returns true if the site at (row, col) is open and its component contains a top row site
+    public boolean isFull(int row, int col) {
+        if (row < 1 || col < 1 || row > n || col > n)
+            throw new IllegalArgumentException("row or column argument is outside of range");
+
+        long site = (long) n * (row - 1) + (col - 1);
+        return isOpenSite(site) && (getStatus(uf.find(site)) & TOP) != 0;
+    }
+
+    // Returns the number of open sites
+    public long numberOfOpenSites() {
+        return numOpen;
+    }
+
+    // Returns true if system percolates
+    public boolean percolates() {
+        return percolates;
+    }
+}
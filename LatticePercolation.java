@@ -0,0 +1,183 @@
+/******************************************************************************
+ *  Dependencies: LatticeTopology.java
+ *                PercolationMetrics.java
+ *                PercolationModel.java
+ *                UnionFind.java
+ *                WeightedQuickUnionUF.java
+ *
+ *  This class models site percolation on an n-by-n patch of any LatticeTopology (square, triangular, honeycomb or
+ *  square with next-nearest neighbors). It offers the same operations as Percolation, with site (1, 1) in the upper
+ *  left-hand corner, and percolates when an open path connects the top row to the bottom row.
+ *
+ *  Sites are stored in a grid padded with a border of sites that are never opened, one site wide on every side, so
+ *  every neighbor of a real site is in the array: opening a site adds each precomputed neighbor offset and tests the
+ *  neighbor's status, with no bounds checks or modulo arithmetic. The padded width W is chosen odd, so that the parity
+ *  of row + col (which selects a honeycomb site's neighbors) is simply the parity of the padded index.
+ *  As in BackwashFreePercolation, the root of each component records whether the component touches the top and
+ *  bottom rows, so one union-find structure answers isFull without backwash.
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+// Models site percolation on an NxN patch of a two-dimensional lattice with one union-find structure and per-root flags.
+public class LatticePercolation implements PercolationModel {
+    private static final byte OPEN = 1;                         // Status bit: site is open
+    private static final byte TOP = 2;                          // Status bit (meaningful on roots): component contains a top row site
+    private static final byte BOTTOM = 4;                       // Status bit (meaningful on roots): component contains a bottom row site
+
+    private static final int MAX_N = 46337;                     // Largest n for which the padded grid fits in an int index
+    private final int n;                                        // Number of rows/columns
+    private final int width;                                    // Columns in the padded grid (odd, at least n + 2)
+    private final LatticeTopology topology;                     // Lattice being modeled
+    private final int[][] offsets;                              // offsets[index & 1] = neighbor offsets of a site at that padded index
+    private int numOpen = 0;                                    // Number of open sites
+    private boolean percolates = false;                         // True once any component touches both the top and bottom rows
+    private final byte[] status;                                // Stores OPEN/TOP/BOTTOM bits for each padded site
+    private final UnionFind uf;                                 // Union Find structure of padded grid sites
+
+    // Creates n-by-n patch of the lattice, with all sites initially blocked
+    public LatticePercolation(int n, LatticeTopology topology) {
+        this(n, topology, WeightedQuickUnionUF::new);
+    }
+
+    // Creates n-by-n patch of the lattice, with all sites initially blocked, whose sites are tracked by a union-find
+    // structure built by engine
+    public LatticePercolation(int n, LatticeTopology topology, IntFunction<UnionFind> engine) {
+        if (n <= 0)
+            throw new IllegalArgumentException("Argument must be greater than or equal to 1");
+        if (n > MAX_N)
+            throw new IllegalArgumentException("Argument must be at most " + MAX_N);
+        if (topology == null)
+            throw new IllegalArgumentException("Lattice topology must not be null");
+        if (engine == null)
+            throw new IllegalArgumentException("Union-find engine must not be null");
+
+        this.n = n;
+        this.topology = topology;
+        this.width = (n % 2 == 1) ? n + 2 : n + 3;              // Odd, so padded index parity is the parity of row + col
+        int padded = width * (n + 2);
+
+        // Real site (row, col) (0-based) is at padded index (row + 1) * width + col + 1, whose parity is that of
+        // row + col + width + 1, and width + 1 is even
+        offsets = new int[][] {topology.offsets(width, 0), topology.offsets(width, 1)};
+        status = new byte[padded];                              // All sites, border included, start blocked
+        uf = engine.apply(padded);
+    }
+
+    // Blocks every site again, restoring the state of a newly created patch without reallocating it
+    public void reset() {
+        if (numOpen == 0)                                       // Nothing has been opened since the last reset
+            return;
+        Arrays.fill(status, (byte) 0);
+        numOpen = 0;
+        percolates = false;
+        uf.reset();
+    }
+
+    // Returns the padded index of site (row, col), validating the 1-based coordinates
+    private int index(int row, int col) {
+        if (row < 1 || col < 1 || row > n || col > n)
+            throw new IllegalArgumentException("row or column argument is outside of range");
+        return row * width + col;
+    }
+
+    // Opens the site (row, col) if it is not open already (connects the site to any adjacent open sites)
+    public void open(int row, int col) {
+        openSite(index(row, col));
+    }
+
+    // Opens siteIndices[from] through siteIndices[to - 1], given as 0-based linear indices n * (row - 1) + (col - 1),
+    // in order, stopping as soon as the system percolates (see PercolationModel)
+    public int openAll(int[] siteIndices, int from, int to) {
+        if (siteIndices == null)
+            throw new IllegalArgumentException("argument is null");
+        if (from < 0 || to > siteIndices.length || from > to)
+            throw new IllegalArgumentException("from or to argument is outside of range");
+
+        boolean percolated = percolates;
+        for (int i = from; i < to; i++) {
+            int site = siteIndices[i];
+            if (site < 0 || site >= n * n)
+                throw new IllegalArgumentException("site index " + site + " is outside of range");
+            int row = site / n;
+            openSite((row + 1) * width + (site - row * n) + 1);
+            if (!percolated && percolates)
+                return i;
+        }
+        return -1;
+    }
+
+    // Opens the site with the given padded index if it is not open already
+    private void openSite(int site) {
+        if ((status[site] & OPEN) != 0)                         // Nothing to do if site is already open
+            return;
+
+        byte flags = OPEN;
+        if (site < 2 * width) flags |= TOP;                     // Site in the top row is connected to the top
+        if (site >= n * width) flags |= BOTTOM;                 // Site in the bottom row is connected to the bottom
+        status[site] = flags;
+        numOpen++;
+
+        int root = site;                                        // A newly opened site is its own root
+        for (int offset : offsets[site & 1]) {                  // Border sites are never open, so no bounds checks
+            int neighbor = site + offset;
+            if ((status[neighbor] & OPEN) != 0)
+                root = connect(root, neighbor);
+        }
+
+        if ((status[root] & (TOP | BOTTOM)) == (TOP | BOTTOM))  // Component of the new site spans top to bottom
+            percolates = true;
+    }
+
+    // Merges the component rooted at root with the component containing neighbor, returning the merged root
+    // whose status carries the union of both components' flags
+    private int connect(int root, int neighbor) {
+        int other = uf.find(neighbor);
+        if (other == root)
+            return root;
+
+        byte flags = (byte) (status[root] | status[other]);
+        uf.union(root, other);
+        root = uf.find(root);
+        status[root] = flags;
+        return root;
+    }
+
+    // Returns true if the site (row, col) is open
+    public boolean isOpen(int row, int col) {
+        return (status[index(row, col)] & OPEN) != 0;
+    }
+
+    // Returns true if the site (row, col) is open and its component contains a top row site
+    public boolean isFull(int row, int col) {
+        int site = index(row, col);
+        return (status[site] & OPEN) != 0 && (status[uf.find(site)] & TOP) != 0;
+    }
+
+    // Returns the lattice being modeled
+    public LatticeTopology topology() {
+        return topology;
+    }
+
+    // Returns the number of sites in the patch
+    public int size() {
+        return n * n;
+    }
+
+    // Returns the number of open sites
+    public int numberOfOpenSites() {
+        return numOpen;
+    }
+
+    // Returns true if system percolates
+    public boolean percolates() {
+        return percolates;
+    }
+
+    // Returns a snapshot of the union-find operations recorded so far (empty unless PercolationMetrics.ENABLED)
+    public PercolationMetrics metrics() {
+        return uf.metrics();
+    }
+}
@@ -0,0 +1,64 @@
+/******************************************************************************
+ *  Dependencies: none
+ *
+ *  Neighbor structure of the two-dimensional lattices that LatticePercolation can model, each embedded in a square
+ *  grid of sites:
+ *
+ *    - SQUARE:      the four horizontal and vertical neighbors (site threshold near 0.5927)
+ *    - TRIANGULAR:  the square neighbors plus the up-right and down-left diagonals, giving each site six neighbors
+ *                   (site threshold 1/2)
+ *    - HONEYCOMB:   the "brick wall" embedding, in which every site has its left and right neighbors plus the site
+ *                   above it if row + col is odd, or the site below it if row + col is even, giving three neighbors
+ *                   (site threshold near 0.6970)
+ *    - SQUARE_NNN:  the square neighbors plus all four diagonals (next-nearest neighbors), giving eight neighbors
+ *                   (site threshold near 0.4073)
+ *
+ *  Neighbors are stored as (row, col) displacements and turned into offsets in a row-major array of a given width by
+ *  offsets(), so that a model precomputes them once and finds neighbors with a single addition each.
+ *
+ ******************************************************************************/
+
+// Two-dimensional lattice whose sites sit on a square grid, described by the displacements to each site's neighbors.
+public enum LatticeTopology {
+    SQUARE(new int[][] {{0, 1}, {0, -1}, {-1, 0}, {1, 0}}),
+    TRIANGULAR(new int[][] {{0, 1}, {0, -1}, {-1, 0}, {1, 0}, {-1, 1}, {1, -1}}),
+    HONEYCOMB(new int[][] {{0, 1}, {0, -1}, {1, 0}},                    // row + col even: bond to the site below
+              new int[][] {{0, 1}, {0, -1}, {-1, 0}}),                  // row + col odd: bond to the site above
+    SQUARE_NNN(new int[][] {{0, 1}, {0, -1}, {-1, 0}, {1, 0}, {-1, 1}, {-1, -1}, {1, 1}, {1, -1}});
+
+    private final int[][] even;                                 // (row, col) displacements of neighbors when row + col is even
+    private final int[][] odd;                                  // (row, col) displacements of neighbors when row + col is odd
+
+    // Lattice whose sites all have the same neighbors
+    LatticeTopology(int[][] neighbors) {
+        this(neighbors, neighbors);
+    }
+
+    // Lattice whose neighbors alternate with the parity of row + col
+    LatticeTopology(int[][] even, int[][] odd) {
+        this.even = even;
+        this.odd = odd;
+    }
+
+    // Returns true if a site's neighbors depend on the parity of row + col
+    public boolean alternates() {
+        return even != odd;
+    }
+
+    // Returns the number of neighbors of each site
+    public int degree() {
+        return even.length;
+    }
+
+    // Returns the offsets of the neighbors of a site with the given parity of row + col (0 = even, 1 = odd) in a
+    // row-major array with the given number of columns
+    public int[] offsets(int width, int parity) {
+        if (width <= 0 || (parity != 0 && parity != 1))
+            throw new IllegalArgumentException("Arguments are out of range");
+        int[][] neighbors = parity == 0 ? even : odd;
+        int[] offsets = new int[neighbors.length];
+        for (int i = 0; i < neighbors.length; i++)
+            offsets[i] = neighbors[i][0] * width + neighbors[i][1];
+        return offsets;
+    }
+}
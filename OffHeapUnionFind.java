@@ -0,0 +1,192 @@
+/******************************************************************************
+ *  Compilation:  javac OffHeapUnionFind.java
+ *  Execution:  java OffHeapUnionFind < input.txt
+ *  Dependencies: StdIn.java StdOut.java
+ *
+ *  Weighted quick-union (by rank) with path halving, indexed by long and
+ *  stored off the Java heap.
+ *
+ ******************************************************************************/
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * The {@code OffHeapUnionFind} class represents a <em>union–find data type</em>
+ * over the elements 0 through <em>n</em>–1, where <em>n</em> may exceed
+ * the largest {@code int}. It supports the same <em>union</em>,
+ * <em>find</em>, <em>count</em> and <em>reset</em> operations as
+ * {@link UnionFind}, but with {@code long} elements.
+ * <p>
+ * Each element takes a single {@code long} of storage: the parent of a
+ * non-root element, or, for a root, its rank encoded as the negative value
+ * &minus;(rank + 1). The storage is split into direct (off-heap) buffers of
+ * 2<sup>27</sup> elements each, so the structure is not limited by the
+ * maximum length of a Java array, does not count against the Java heap, and is
+ * never scanned or copied by the garbage collector. Its memory is released
+ * when the object becomes unreachable and its buffers are collected.
+ * <p>
+ * Direct buffers are limited instead by {@code -XX:MaxDirectMemorySize},
+ * which defaults to the maximum heap size; structures larger than that fail
+ * with an {@code OutOfMemoryError} for direct buffer memory unless the JVM is
+ * started with a large enough limit, for example
+ * {@code java -XX:MaxDirectMemorySize=24g} for 3 billion elements
+ * (8 bytes each).
+ * <p>
+ * This implementation uses <em>weighted quick union by rank</em> with
+ * <em>path halving</em>, so <em>union</em> and <em>find</em> take
+ * <em>O</em>(&alpha;(<em>n</em>)) amortized time. The constructor and
+ * <em>reset</em> take &Theta;(<em>n</em>) time; <em>count</em> takes
+ * &Theta;(1) time.
+ */
+public class OffHeapUnionFind {
+    private static final int SEGMENT_BITS = 27;                     // 2^27 longs = 1 GiB per direct buffer
+    private static final int SEGMENT_MASK = (1 << SEGMENT_BITS) - 1;
+
+    /**
+     * The largest supported number of elements, (2<sup>31</sup>&minus;1)&middot;2<sup>27</sup>,
+     * so that the number of buffers fits in an {@code int}.
+     */
+    public static final long MAX_ELEMENTS = (long) Integer.MAX_VALUE << SEGMENT_BITS;
+
+    private final long n;                                           // number of elements
+    private final LongBuffer[] segments;                            // element i is at segments[i >>> 27].get(i & mask)
+    private long count;                                             // number of components
+
+    /**
+     * Initializes an empty union-find data structure with
+     * {@code n} elements {@code 0} through {@code n-1}.
+     * Initially, each elements is in its own set.
+     *
+     * @param n the number of elements
+     * @throws IllegalArgumentException if {@code n < 0} or {@code n > MAX_ELEMENTS}
+     */
+    public OffHeapUnionFind(long n) {
+        if (n < 0) throw new IllegalArgumentException("number of elements must be non-negative: " + n);
+        if (n > MAX_ELEMENTS) throw new IllegalArgumentException("number of elements must be at most " + MAX_ELEMENTS + ": " + n);
+        this.n = n;
+        int numSegments = (int) ((n + SEGMENT_MASK) >>> SEGMENT_BITS);
+        segments = new LongBuffer[numSegments];
+        for (int s = 0; s < numSegments; s++) {
+            long length = Math.min(1L << SEGMENT_BITS, n - ((long) s << SEGMENT_BITS));
+            segments[s] = ByteBuffer.allocateDirect((int) (length * Long.BYTES))
+                                    .order(ByteOrder.nativeOrder())
+                                    .asLongBuffer();
+        }
+        reset();
+    }
+
+    /**
+     * Restores the initial state, in which each element is in its own set,
+     * without reallocating the underlying buffers.
+     */
+    public void reset() {
+        count = n;
+        for (LongBuffer segment : segments)
+            for (int i = 0; i < segment.capacity(); i++)
+                segment.put(i, -1L);                                // a root of rank 0
+    }
+
+    private long get(long i) {
+        return segments[(int) (i >>> SEGMENT_BITS)].get((int) (i & SEGMENT_MASK));
+    }
+
+    private void set(long i, long value) {
+        segments[(int) (i >>> SEGMENT_BITS)].put((int) (i & SEGMENT_MASK), value);
+    }
+
+    /**
+     * Returns the number of elements.
+     *
+     * @return the number of elements
+     */
+    public long size() {
+        return n;
+    }
+
+    /**
+     * Returns the number of sets.
+     *
+     * @return the number of sets (between {@code 1} and {@code n})
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Returns the canonical element of the set containing element {@code p},
+     * linking every other element on the path from {@code p} to the root to its grandparent.
+     *
+     * @param p an element
+     * @return the canonical element of the set containing {@code p}
+     * @throws IllegalArgumentException unless {@code 0 <= p < n}
+     */
+    public long find(long p) {
+        validate(p);
+        long parent = get(p);
+        while (parent >= 0) {
+            long grandparent = get(parent);
+            if (grandparent < 0) return parent;
+            set(p, grandparent);
+            p = grandparent;
+            parent = get(p);
+        }
+        return p;
+    }
+
+    // validate that p is a valid index
+    private void validate(long p) {
+        if (p < 0 || p >= n) {
+            throw new IllegalArgumentException("index " + p + " is not between 0 and " + (n - 1));
+        }
+    }
+
+    /**
+     * Merges the set containing element {@code p} with the
+     * the set containing element {@code q}.
+     *
+     * @param p one element
+     * @param q the other element
+     * @throws IllegalArgumentException unless
+     *                                  both {@code 0 <= p < n} and {@code 0 <= q < n}
+     */
+    public void union(long p, long q) {
+        long rootP = find(p);
+        long rootQ = find(q);
+        if (rootP == rootQ) return;
+
+        // make root of smaller rank point to root of larger rank (encoded ranks are negative)
+        long rankP = get(rootP);
+        long rankQ = get(rootQ);
+        if (rankP > rankQ) set(rootP, rootQ);
+        else if (rankP < rankQ) set(rootQ, rootP);
+        else {
+            set(rootQ, rootP);
+            set(rootP, rankP - 1);
+        }
+        count--;
+    }
+
+    /**
+     * Reads an integer {@code n} and a sequence of pairs of integers
+     * (between {@code 0} and {@code n-1}) from standard input, where each integer
+     * in the pair represents some element;
+     * if the elements are in different sets, merge the two sets
+     * and print the pair to standard output.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        long n = StdIn.readLong();
+        OffHeapUnionFind uf = new OffHeapUnionFind(n);
+        while (!StdIn.isEmpty()) {
+            long p = StdIn.readLong();
+            long q = StdIn.readLong();
+            if (uf.find(p) == uf.find(q)) continue;
+            uf.union(p, q);
+            StdOut.println(p + " " + q);
+        }
+        StdOut.println(uf.count() + " components");
+    }
+}
@@ -1,35 +1,97 @@
 /******************************************************************************
  *  Author: Blayne Ayersman
  *  Last Edit Date: 6/27/2021
- *  Dependencies: WeightedQuickUnionUF.java
+ *  Dependencies: PercolationMetrics.java
+ *                PercolationModel.java
+ *                UnionFind.java
+ *                WeightedQuickUnionUF.java
  *
  *  This class serves as an API through which to model a percolation system.
+ *  Open sites are recorded one bit per site, packed 64 to a long word.
+ *  Optionally, the clusters of open sites are tracked as they merge: a third union-find structure over the real sites
+ *  (the other two also join every top row site through the virtual top site) and a histogram of cluster sizes, so the
+ *  number of clusters, the largest cluster and the cluster-size distribution are available in constant time.
  *
  ******************************************************************************/
 
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
 // Models a percolation system with NxN sites by using an optimized union-find data structure.
-public class Percolation {
+public class Percolation implements PercolationModel {
+    private static final int MAX_N = 46340;                     // Largest n for which n * n + 2 fits in an int
     private final int n;                                        // Number of rows/columns
     private final int nSquared;                                 // Number of sites in grid
     private int numOpen = 0;                                    // Number of open sites
-    private boolean[] openStatus;                               // Stores true/false for if corresponding site is open
-    private final WeightedQuickUnionUF uf;                      // Union Find structure of percolation system sites with a virtual top and bottom site
-    private final WeightedQuickUnionUF uf2;                     // Union Find structure of percolation system sites with a virtual top site, but no virtual bottom site
+    private final long[] openStatus;                            // Bit (site & 63) of word (site >>> 6) is set if corresponding site is open
+    private final UnionFind uf;                                 // Union Find structure of percolation system sites with a virtual top and bottom site
+    private final UnionFind uf2;                                // Union Find structure of percolation system sites with a virtual top site, but no virtual bottom site
+    private final UnionFind clusters;                           // Union Find structure of open site clusters (no virtual sites), or null if not tracked
+    private final int[] histogram;                              // histogram[s] = number of clusters of exactly s open sites, if tracked
+    private int numClusters = 0;                                // Number of clusters of open sites, if tracked
+    private int largest = 0;                                    // Size of the largest cluster, if tracked
+    private long clusterSquares = 0;                            // Sum over clusters of size squared, if tracked
 
     // Creates n-by-n grid, with all sites initially blocked
     public Percolation(int n) {
+        this(n, WeightedQuickUnionUF::new);
+    }
+
+    // Creates n-by-n grid, with all sites initially blocked, whose sites are tracked by union-find structures built by engine
+    // (e.g. WeightedQuickUnionPathHalvingUF::new)
+    public Percolation(int n, IntFunction<UnionFind> engine) {
+        this(n, engine, false);
+    }
+
+    // Creates n-by-n grid, as above, that also tracks its clusters of open sites if trackClusters is true
+    public Percolation(int n, IntFunction<UnionFind> engine, boolean trackClusters) {
         if (n <= 0)
             throw new IllegalArgumentException("Argument must be greater than or equal to 1");
+        if (n > MAX_N)
+            throw new IllegalArgumentException("Argument must be at most " + MAX_N + " (use LargePercolation)");
+        if (engine == null)
+            throw new IllegalArgumentException("Union-find engine must not be null");
 
         this.n = n;                                             // Initialize number of rows/columns
         this.nSquared = n * n;                                  // Initialize n x n
 
-        openStatus = new boolean[n * n + 2];                    // Initialize array of boolean checks for each site to represent if it's open
-        openStatus[nSquared] = true;                            // Open virtual bottom site
-        openStatus[nSquared + 1] = true;                        // Open virtual top site
+        openStatus = new long[(nSquared + 2 + 63) >>> 6];       // Initialize one bit per site (and virtual site), all blocked
+        openVirtualSites();
+
+        uf = engine.apply(nSquared + 2);                        // Fill uf with sites + virtual top and bottom site
+        uf2 = engine.apply(nSquared + 1);                       // No virtual bottom site
+        clusters = trackClusters ? engine.apply(nSquared) : null;
+        histogram = trackClusters ? new int[nSquared + 1] : null;
+    }
+
+    // Blocks every site again, restoring the state of a newly created n-by-n grid without reallocating it
+    // The union-find structures only restore the entries touched by the last trial's unions
+    public void reset() {
+        if (numOpen == 0)                                       // Nothing has been opened since the last reset
+            return;
+        Arrays.fill(openStatus, 0L);                            // Block every site, a word of 64 sites at a time
+        openVirtualSites();
+        numOpen = 0;
+        uf.reset();
+        uf2.reset();
+        if (clusters != null) {
+            clusters.reset();
+            Arrays.fill(histogram, 0, largest + 1, 0);          // No cluster is larger than the largest
+            numClusters = 0;
+            largest = 0;
+            clusterSquares = 0;
+        }
+    }
+
+    // Marks the virtual bottom and virtual top sites as open
+    private void openVirtualSites() {
+        openStatus[nSquared >>> 6] |= 1L << nSquared;           // Open virtual bottom site (shift distance is taken mod 64)
+        openStatus[(nSquared + 1) >>> 6] |= 1L << (nSquared + 1); // Open virtual top site
+    }
 
-        uf = new WeightedQuickUnionUF(nSquared + 2);            // Fill uf with sites + virtual top and bottom site
-        uf2 = new WeightedQuickUnionUF(nSquared + 1);           // No virtual bottom site
+    // Returns true if the bit for site is set
+    private boolean isOpenSite(int site) {
+        return (openStatus[site >>> 6] & (1L << site)) != 0;
     }
 
     // Opens the site (row, col) if it is not open already (connects the site to any adjacent open sites)
@@ -39,39 +101,100 @@ public class Percolation {
 
         row--;                                                  // Decrement row input to match our uf array structure
         col--;                                                  // Decrement column input to match our uf array structure
-        int site = n * row + col;                               // Calculate index of site given grid row & column
+        openSite(n * row + col);                                // Open site at index given by grid row & column
+    }
+
+    // Opens siteIndices[from] through siteIndices[to - 1], given as 0-based linear indices n * (row - 1) + (col - 1),
+    // in order, stopping as soon as the system percolates
+    // Returns the index i such that opening siteIndices[i] made the system percolate (later sites are left as they
+    // were), or -1 if it does not percolate after the last site; if it already percolated, every site is opened and
+    // -1 is returned
+    public int openAll(int[] siteIndices, int from, int to) {
+        if (siteIndices == null)
+            throw new IllegalArgumentException("argument is null");
+        if (from < 0 || to > siteIndices.length || from > to)
+            throw new IllegalArgumentException("from or to argument is outside of range");
+
+        boolean percolated = percolates();
+        for (int i = from; i < to; i++) {
+            int site = siteIndices[i];
+            if (site < 0 || site >= nSquared)
+                throw new IllegalArgumentException("site index " + site + " is outside of range");
+            if (isOpenSite(site))
+                continue;
+            openSite(site);
+            if (!percolated && numOpen >= n && percolates())    // A spanning path needs at least n open sites
+                return i;
+        }
+        return -1;
+    }
 
-        if (!openStatus[site]) {                                // If site is not already open
-            openStatus[site] = true;                            // Open the site
+    // Opens the site with the given linear index if it is not open already
+    private void openSite(int site) {
+        if (!isOpenSite(site)) {                                // If site is not already open
+            openStatus[site >>> 6] |= 1L << site;               // Open the site
             numOpen++;                                          // Increment number of open sites
+            if (clusters != null)                               // The site is a new cluster of size 1
+                addCluster();
 
-            if (site % n != n - 1 && openStatus[site + 1]) {    // If site is not in the right column,
+            if (site % n != n - 1 && isOpenSite(site + 1)) {    // If site is not in the right column,
                 uf.union(site + 1, site);                       // connect to adjacent site to the right if it's open.
                 uf2.union(site + 1, site);
+                if (clusters != null) mergeClusters(site + 1, site);
             }
 
-            if (site % n != 0 && openStatus[site - 1]) {        // If site is not in the left column,
+            if (site % n != 0 && isOpenSite(site - 1)) {        // If site is not in the left column,
                 uf.union(site - 1, site);                       // connect to adjacent site to the left if it's open.
                 uf2.union(site - 1, site);
+                if (clusters != null) mergeClusters(site - 1, site);
             }
 
             if (site < n) {                                     // If site is in the top row,
                 uf.union(nSquared + 1, site);                   // connect to virtual top site.
                 uf2.union(nSquared, site);
-            } else if (openStatus[site - n]) {                  // Otherwise if adjacent site above is open,
+            } else if (isOpenSite(site - n)) {                  // Otherwise if adjacent site above is open,
                 uf.union(site - n, site);                       // Connect to adjacent site above.
                 uf2.union(site - n, site);
+                if (clusters != null) mergeClusters(site - n, site);
             }
 
             if (site >= n * (n - 1))                            // If site is in the bottom row,
                 uf.union(site, nSquared);                       // connect to virtual bottom site.
-            else if (openStatus[site + n]) {                    // Otherwise if adjacent site below is open,
+            else if (isOpenSite(site + n)) {                    // Otherwise if adjacent site below is open,
                 uf.union(site + n, site);                       // connect to adjacent site below.
                 uf2.union(site + n, site);
+                if (clusters != null) mergeClusters(site + n, site);
             }
         }
     }
 
+    // Records a newly opened site as a cluster of size 1
+    private void addCluster() {
+        histogram[1]++;
+        numClusters++;
+        clusterSquares++;
+        if (largest == 0)
+            largest = 1;
+    }
+
+    // Merges the clusters containing open sites p and q, updating the histogram, count and largest cluster
+    private void mergeClusters(int p, int q) {
+        int rootP = clusters.find(p);
+        int rootQ = clusters.find(q);
+        if (rootP == rootQ)
+            return;
+        int a = clusters.size(rootP);
+        int b = clusters.size(rootQ);
+        clusters.union(rootP, rootQ);
+        histogram[a]--;
+        histogram[b]--;
+        histogram[a + b]++;
+        numClusters--;
+        clusterSquares += 2L * a * b;                           // (a + b)^2 = a^2 + b^2 + 2ab
+        if (a + b > largest)
+            largest = a + b;
+    }
+
     // Returns true if the site (row, col) is open
     public boolean isOpen(int row, int col) {
         if (row < 1 || col < 1 || row > n || col > n)
@@ -80,7 +203,7 @@ public class Percolation {
         row--;                                                  // Decrement row input to match union-find array structure
         col--;                                                  // Decrement column input to match union-find array structure
         int site = n * row + col;                               // Calculate site in question from row & col
-        return openStatus[site];                                // Check if bool value stored for this index of uf in openStatus array is true
+        return isOpenSite(site);                                // Check if bit stored for this site in openStatus array is set
     }
 
     // Returns true if the site at (row, col) is connected to the virtual top site
@@ -94,6 +217,11 @@ public class Percolation {
         return uf2.find(site) == uf2.find(nSquared);            // Return whether or not site is connected to vTop component
     }
 
+    // Returns the number of sites in the grid
+    public int size() {
+        return nSquared;
+    }
+
     // Returns the number of open sites
     public int numberOfOpenSites() {
         return numOpen;                                         // Return count of components in uf
@@ -103,4 +231,55 @@ public class Percolation {
     public boolean percolates() {
         return uf.find(nSquared) == uf.find(nSquared + 1);      // Check if vBottom has the same id as vTop
     }
+
+    // Throws an exception unless clusters are tracked
+    private void requireClusters() {
+        if (clusters == null)
+            throw new IllegalStateException("Cluster tracking is off (construct with trackClusters = true)");
+    }
+
+    // Returns the number of clusters of open sites
+    public int numberOfClusters() {
+        requireClusters();
+        return numClusters;
+    }
+
+    // Returns the number of sites in the largest cluster of open sites (0 if no site is open)
+    public int largestClusterSize() {
+        requireClusters();
+        return largest;
+    }
+
+    // Returns the number of clusters of exactly size open sites
+    public int clusterCount(int size) {
+        requireClusters();
+        if (size < 1 || size > nSquared)
+            throw new IllegalArgumentException("size argument is outside of range");
+        return histogram[size];
+    }
+
+    // Returns the number of sites in the cluster containing site (row, col), or 0 if the site is blocked
+    public int clusterSize(int row, int col) {
+        requireClusters();
+        if (row < 1 || col < 1 || row > n || col > n)
+            throw new IllegalArgumentException("row or column argument is outside of range");
+        int site = n * (row - 1) + (col - 1);
+        return isOpenSite(site) ? clusters.size(site) : 0;
+    }
+
+    // Returns the mean size of the cluster containing a uniformly random open site (the sum of squared cluster sizes
+    // over the number of open sites), or 0 if no site is open
+    public double meanClusterSize() {
+        requireClusters();
+        return numOpen == 0 ? 0 : (double) clusterSquares / numOpen;
+    }
+
+    // Returns a snapshot of the operations recorded by the union-find structures (empty unless PercolationMetrics.ENABLED)
+    public PercolationMetrics metrics() {
+        PercolationMetrics metrics = uf.metrics();
+        metrics.merge(uf2.metrics());
+        if (clusters != null)
+            metrics.merge(clusters.metrics());
+        return metrics;
+    }
 }
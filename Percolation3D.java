@@ -0,0 +1,179 @@
+/******************************************************************************
+ *  Dependencies: PercolationMetrics.java
+ *                PercolationModel.java
+ *                UnionFind.java
+ *                WeightedQuickUnionUF.java
+ *
+ *  This class models site percolation on an L-by-L-by-L simple cubic lattice, in which each site has six neighbors.
+ *  It offers the same operations as Percolation, with sites addressed by 1-based (x, y, z) coordinates; the system
+ *  percolates when an open path connects the top plane (z = 1) to the bottom plane (z = L). The threshold is near
+ *  0.3116.
+ *
+ *  Memory is kept to what large lattices need: one status byte per site plus the union-find engine, and no virtual
+ *  sites. As in BackwashFreePercolation, the root of each component records whether the component touches the top
+ *  and bottom planes, so a single union-find structure answers isFull without backwash.
+ *  Site (x, y, z) has linear index (z * L + y) * L + x (0-based coordinates), so x-neighbors are adjacent in memory,
+ *  y-neighbors are L apart and z-neighbors are L * L apart; sweeping x fastest walks the status array sequentially.
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+// Models a percolation system with LxLxL sites by using one union-find data structure plus per-root top/bottom flags.
+public class Percolation3D implements PercolationModel {
+    private static final byte OPEN = 1;                         // Status bit: site is open
+    private static final byte TOP = 2;                          // Status bit (meaningful on roots): component contains a top plane site
+    private static final byte BOTTOM = 4;                       // Status bit (meaningful on roots): component contains a bottom plane site
+
+    private static final int MAX_L = 1290;                      // Largest L for which L * L * L fits in an int
+    private final int l;                                        // Number of sites along each edge
+    private final int plane;                                    // Number of sites in each z plane (L * L)
+    private final int size;                                     // Number of sites in lattice
+    private int numOpen = 0;                                    // Number of open sites
+    private boolean percolates = false;                         // True once any component touches both the top and bottom planes
+    private final byte[] status;                                // Stores OPEN/TOP/BOTTOM bits for each site
+    private final UnionFind uf;                                 // Union Find structure of lattice sites (no virtual sites)
+
+    // Creates L-by-L-by-L lattice, with all sites initially blocked
+    public Percolation3D(int l) {
+        this(l, WeightedQuickUnionUF::new);
+    }
+
+    // Creates L-by-L-by-L lattice, with all sites initially blocked, whose sites are tracked by a union-find structure
+    // built by engine
+    public Percolation3D(int l, IntFunction<UnionFind> engine) {
+        if (l <= 0)
+            throw new IllegalArgumentException("Argument must be greater than or equal to 1");
+        if (l > MAX_L)
+            throw new IllegalArgumentException("Argument must be at most " + MAX_L);
+        if (engine == null)
+            throw new IllegalArgumentException("Union-find engine must not be null");
+
+        this.l = l;
+        this.plane = l * l;
+        this.size = plane * l;
+        status = new byte[size];                                // All sites start blocked, with no flags set
+        uf = engine.apply(size);
+    }
+
+    // Blocks every site again, restoring the state of a newly created lattice without reallocating it
+    public void reset() {
+        if (numOpen == 0)                                       // Nothing has been opened since the last reset
+            return;
+        Arrays.fill(status, (byte) 0);
+        numOpen = 0;
+        percolates = false;
+        uf.reset();
+    }
+
+    // Returns the linear index of site (x, y, z), validating the 1-based coordinates
+    private int index(int x, int y, int z) {
+        if (x < 1 || y < 1 || z < 1 || x > l || y > l || z > l)
+            throw new IllegalArgumentException("x, y or z argument is outside of range");
+        return ((z - 1) * l + (y - 1)) * l + (x - 1);
+    }
+
+    // Opens the site (x, y, z) if it is not open already (connects the site to any adjacent open sites)
+    public void open(int x, int y, int z) {
+        openSite(index(x, y, z));
+    }
+
+    // Opens siteIndices[from] through siteIndices[to - 1], given as linear indices (z * L + y) * L + x of 0-based
+    // coordinates, in order, stopping as soon as the system percolates (see PercolationModel)
+    public int openAll(int[] siteIndices, int from, int to) {
+        if (siteIndices == null)
+            throw new IllegalArgumentException("argument is null");
+        if (from < 0 || to > siteIndices.length || from > to)
+            throw new IllegalArgumentException("from or to argument is outside of range");
+
+        boolean percolated = percolates;
+        for (int i = from; i < to; i++) {
+            int site = siteIndices[i];
+            if (site < 0 || site >= size)
+                throw new IllegalArgumentException("site index " + site + " is outside of range");
+            openSite(site);
+            if (!percolated && percolates)
+                return i;
+        }
+        return -1;
+    }
+
+    // Opens the site with the given linear index if it is not open already
+    private void openSite(int site) {
+        if ((status[site] & OPEN) != 0)                         // Nothing to do if site is already open
+            return;
+
+        int z = site / plane;                                   // 0-based coordinates of the site
+        int y = (site - z * plane) / l;
+        int x = site - z * plane - y * l;
+
+        byte flags = OPEN;
+        if (z == 0) flags |= TOP;                               // Site in the top plane is connected to the top
+        if (z == l - 1) flags |= BOTTOM;                        // Site in the bottom plane is connected to the bottom
+        status[site] = flags;
+        numOpen++;
+
+        int root = site;                                        // A newly opened site is its own root
+        if (x != l - 1 && (status[site + 1] & OPEN) != 0)
+            root = connect(root, site + 1);
+        if (x != 0 && (status[site - 1] & OPEN) != 0)
+            root = connect(root, site - 1);
+        if (y != l - 1 && (status[site + l] & OPEN) != 0)
+            root = connect(root, site + l);
+        if (y != 0 && (status[site - l] & OPEN) != 0)
+            root = connect(root, site - l);
+        if (z != l - 1 && (status[site + plane] & OPEN) != 0)
+            root = connect(root, site + plane);
+        if (z != 0 && (status[site - plane] & OPEN) != 0)
+            root = connect(root, site - plane);
+
+        if ((status[root] & (TOP | BOTTOM)) == (TOP | BOTTOM))  // Component of the new site spans top to bottom
+            percolates = true;
+    }
+
+    // Merges the component rooted at root with the component containing neighbor, returning the merged root
+    // whose status carries the union of both components' flags
+    private int connect(int root, int neighbor) {
+        int other = uf.find(neighbor);
+        if (other == root)
+            return root;
+
+        byte flags = (byte) (status[root] | status[other]);
+        uf.union(root, other);
+        root = uf.find(root);
+        status[root] = flags;
+        return root;
+    }
+
+    // Returns true if the site (x, y, z) is open
+    public boolean isOpen(int x, int y, int z) {
+        return (status[index(x, y, z)] & OPEN) != 0;
+    }
+
+    // Returns true if the site (x, y, z) is open and its component contains a top plane site
+    public boolean isFull(int x, int y, int z) {
+        int site = index(x, y, z);
+        return (status[site] & OPEN) != 0 && (status[uf.find(site)] & TOP) != 0;
+    }
+
+    // Returns the number of sites in the lattice
+    public int size() {
+        return size;
+    }
+
+    // Returns the number of open sites
+    public int numberOfOpenSites() {
+        return numOpen;
+    }
+
+    // Returns true if system percolates
+    public boolean percolates() {
+        return percolates;
+    }
+
+    // Returns a snapshot of the union-find operations recorded so far (empty unless PercolationMetrics.ENABLED)
+    public PercolationMetrics metrics() {
+        return uf.metrics();
+    }
+}
@@ -0,0 +1,385 @@
+/******************************************************************************
+ *  Compilation:  javac PercolationBenchmark.java
+ *  Execution:    java PercolationBenchmark [results.json] [n ...]
+ *
+ *  Dependencies: Percolation.java
+ *                BackwashFreePercolation.java
+ *                PercolationTrial.java
+ *                RandomStream.java
+ *                UnionFind.java
+ *                WeightedQuickUnionUF.java
+ *                WeightedQuickUnionPathCompressionUF.java
+ *                WeightedQuickUnionPathHalvingUF.java
+ *                WeightedQuickUnionPathSplittingUF.java
+ *                In.java
+ *                StdOut.java
+ *
+ *  Micro-benchmark harness for the percolation model, the union-find engines and full Monte Carlo trials.
+ *  Every benchmark is run for a number of untimed warm-up iterations (so the JIT compiler has settled) followed by
+ *  timed measurement iterations, and is reported as the average time per operation with a 95% confidence interval
+ *  over the measurement iterations. Results are printed as a table and written as JSON (by default to
+ *  benchmark-results.json) so that runs can be compared for regressions.
+ *
+ *  Small workloads are repeated within an iteration (resetting the model or engine between repetitions) so that
+ *  every iteration performs a few million operations.
+ *
+ *  Benchmarks, each run for every grid size n (default 100, 500, 1000 and 4000):
+ *    - open:        opening every site of an n-by-n model in random order, per open
+ *    - isFull:      isFull on uniformly random sites of a model with 59% of its sites open, per query
+ *    - percolates:  percolates on that same model, per query
+ *    - union/find:  n*n random unions followed by n*n random finds on an engine of n*n elements, per operation
+ *    - adversarial: unions that merge equal-sized trees (building trees of maximal height), then finds on the
+ *                   deepest element of each tree, per operation
+ *    - trial:       one full PercolationStats trial (open random sites until the system percolates), per trial
+ *
+ *  and once, independent of n:
+ *    - readInt:     reading a PercolationVisualizer-style file of n*n "row col" lines (n = 1000) with In's
+ *                   byte-level tokenizer and with a Scanner-backed In, per int read
+ *
+ ******************************************************************************/
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+public class PercolationBenchmark {
+    private static final int WARMUP_ITERATIONS = 3;                     // Untimed iterations run before measuring
+    private static final int MEASUREMENT_ITERATIONS = 5;                // Timed iterations
+    private static final double CONFIDENCE_95 = 1.96;                   // Z-value for 95% confidence level
+    private static final long SEED = 20210627L;                         // Seed for every random workload, so runs are comparable
+    private static final int OPS_PER_ITERATION = 4_000_000;             // Minimum operations per iteration for repeated workloads
+    private static final Map<String, IntFunction<UnionFind>> ENGINES = new LinkedHashMap<>();
+
+    static {
+        ENGINES.put("WeightedQuickUnionUF", WeightedQuickUnionUF::new);
+        ENGINES.put("WeightedQuickUnionPathCompressionUF", WeightedQuickUnionPathCompressionUF::new);
+        ENGINES.put("WeightedQuickUnionPathHalvingUF", WeightedQuickUnionPathHalvingUF::new);
+        ENGINES.put("WeightedQuickUnionPathSplittingUF", WeightedQuickUnionPathSplittingUF::new);
+    }
+
+    private static long sink;                                           // Consumes benchmark results so the JIT cannot discard the work
+
+    // One timed iteration of a benchmark; performs the work and returns the number of operations performed
+    private interface Iteration {
+        long run();
+    }
+
+    // Measured result of one benchmark
+    private static class Result {
+        private final String benchmark;
+        private final Map<String, String> params;
+        private final double[] nanosPerOp;                              // Average time per operation of each measurement iteration
+
+        Result(String benchmark, Map<String, String> params, double[] nanosPerOp) {
+            this.benchmark = benchmark;
+            this.params = params;
+            this.nanosPerOp = nanosPerOp;
+        }
+
+        double score() {
+            double sum = 0;
+            for (double x : nanosPerOp) sum += x;
+            return sum / nanosPerOp.length;
+        }
+
+        double error() {
+            if (nanosPerOp.length < 2) return Double.NaN;
+            double mean = score();
+            double sum = 0;
+            for (double x : nanosPerOp) sum += (x - mean) * (x - mean);
+            return CONFIDENCE_95 * Math.sqrt(sum / (nanosPerOp.length - 1)) / Math.sqrt(nanosPerOp.length);
+        }
+    }
+
+    private final List<Result> results = new ArrayList<>();
+
+    // Runs the warm-up and measurement iterations of one benchmark, records and prints its result
+    // setup is run untimed before every iteration and returns the iteration to time
+    private void measure(String benchmark, Map<String, String> params, Supplier<Iteration> setup) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++)
+            sink += setup.get().run();
+
+        double[] nanosPerOp = new double[MEASUREMENT_ITERATIONS];
+        for (int i = 0; i < MEASUREMENT_ITERATIONS; i++) {
+            Iteration iteration = setup.get();
+            long start = System.nanoTime();
+            long ops = iteration.run();
+            nanosPerOp[i] = (double) (System.nanoTime() - start) / ops;
+        }
+
+        Result result = new Result(benchmark, params, nanosPerOp);
+        results.add(result);
+        StdOut.printf("%-12s %-80s %14.3f ± %12.3f ns/op%n", benchmark, params, result.score(), result.error());
+    }
+
+    private static Map<String, String> params(String... keyValues) {
+        Map<String, String> params = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2)
+            params.put(keyValues[i], keyValues[i + 1]);
+        return params;
+    }
+
+    // Returns a uniformly random permutation of 0 through size - 1
+    private static int[] permutation(int size, RandomStream random) {
+        int[] a = new int[size];
+        for (int i = 0; i < size; i++) {
+            int j = random.uniform(i + 1);
+            a[i] = a[j];
+            a[j] = i;
+        }
+        return a;
+    }
+
+    // Number of repetitions of a workload of size operations that makes up one iteration
+    private static int repetitions(long size) {
+        return (int) Math.max(1, OPS_PER_ITERATION / size);
+    }
+
+    // Opening every site of a model, for both models and every engine
+    private void benchmarkOpen(int n) {
+        int[] order = permutation(n * n, new RandomStream(SEED, 0));
+        int reps = repetitions(order.length);
+        for (Map.Entry<String, IntFunction<UnionFind>> engine : ENGINES.entrySet()) {
+            measure("open", params("n", "" + n, "model", "Percolation", "engine", engine.getKey()), () -> {
+                Percolation percolation = new Percolation(n, engine.getValue());
+                return () -> {
+                    for (int r = 0; r < reps; r++) {
+                        percolation.reset();
+                        for (int site : order)
+                            percolation.open(site / n + 1, site % n + 1);
+                    }
+                    return (long) reps * order.length;
+                };
+            });
+            measure("openAll", params("n", "" + n, "model", "Percolation", "engine", engine.getKey()), () -> {
+                Percolation percolation = new Percolation(n, engine.getValue());
+                return () -> {
+                    for (int r = 0; r < reps; r++) {
+                        percolation.reset();
+                        int last = percolation.openAll(order, 0, order.length);   // Stops where the system percolates
+                        percolation.openAll(order, last + 1, order.length);
+                    }
+                    return (long) reps * order.length;
+                };
+            });
+            measure("open", params("n", "" + n, "model", "BackwashFreePercolation", "engine", engine.getKey()), () -> {
+                BackwashFreePercolation percolation = new BackwashFreePercolation(n, engine.getValue());
+                return () -> {
+                    for (int r = 0; r < reps; r++) {
+                        percolation.reset();
+                        for (int site : order)
+                            percolation.open(site / n + 1, site % n + 1);
+                    }
+                    return (long) reps * order.length;
+                };
+            });
+        }
+    }
+
+    // isFull and percolates queries on a model with 59% of its sites open (close to the percolation threshold)
+    private void benchmarkQueries(int n) {
+        RandomStream random = new RandomStream(SEED, 0);
+        int[] order = permutation(n * n, random);
+        int[] queries = new int[1 << 20];
+        for (int i = 0; i < queries.length; i++)
+            queries[i] = random.uniform(n * n);
+
+        for (Map.Entry<String, IntFunction<UnionFind>> engine : ENGINES.entrySet()) {
+            Percolation percolation = new Percolation(n, engine.getValue());
+            for (int i = 0; i < order.length * 59L / 100; i++)
+                percolation.open(order[i] / n + 1, order[i] % n + 1);
+
+            measure("isFull", params("n", "" + n, "engine", engine.getKey()), () -> () -> {
+                long full = 0;
+                for (int site : queries)
+                    if (percolation.isFull(site / n + 1, site % n + 1)) full++;
+                sink += full;
+                return queries.length;
+            });
+            measure("percolates", params("n", "" + n, "engine", engine.getKey()), () -> () -> {
+                long percolates = 0;
+                for (int i = 0; i < queries.length; i++)
+                    if (percolation.percolates()) percolates++;
+                sink += percolates;
+                return queries.length;
+            });
+        }
+    }
+
+    // Random unions followed by random finds, and adversarial (maximal height) unions followed by deepest finds
+    private void benchmarkUnionFind(int n) {
+        int size = n * n;
+        RandomStream random = new RandomStream(SEED, 0);
+        int[] pairs = new int[2 * size];
+        for (int i = 0; i < pairs.length; i++)
+            pairs[i] = random.uniform(size);
+
+        // Merging trees of equal size, always passing the deepest element of each, builds binomial trees whose
+        // height grows by one at every level: the worst case for weighted quick-union without path compression
+        List<Integer> adversarial = new ArrayList<>();
+        for (int width = 1; width < size; width *= 2)
+            for (int i = 0; i + width < size; i += 2 * width) {
+                adversarial.add(i + width - 1);
+                adversarial.add(i + 2 * width - 1 < size ? i + 2 * width - 1 : size - 1);
+            }
+        int[] worst = adversarial.stream().mapToInt(Integer::intValue).toArray();
+
+        int reps = repetitions(2L * size);
+        int worstReps = repetitions(worst.length / 2 + worst.length);
+        for (Map.Entry<String, IntFunction<UnionFind>> engine : ENGINES.entrySet()) {
+            measure("union/find", params("n", "" + n, "sequence", "random", "engine", engine.getKey()), () -> {
+                UnionFind uf = engine.getValue().apply(size);
+                return () -> {
+                    long roots = 0;
+                    for (int r = 0; r < reps; r++) {
+                        uf.reset();
+                        for (int i = 0; i < size; i++)
+                            uf.union(pairs[2 * i], pairs[2 * i + 1]);
+                        for (int i = 0; i < size; i++)
+                            roots += uf.find(pairs[2 * i]);
+                    }
+                    sink += roots;
+                    return 2L * reps * size;
+                };
+            });
+            measure("union/find", params("n", "" + n, "sequence", "adversarial", "engine", engine.getKey()), () -> {
+                UnionFind uf = engine.getValue().apply(size);
+                return () -> {
+                    long roots = 0;
+                    for (int r = 0; r < worstReps; r++) {
+                        uf.reset();
+                        for (int i = 0; i < worst.length; i += 2)
+                            uf.union(worst[i], worst[i + 1]);
+                        for (int i = 0; i < worst.length; i++)
+                            roots += uf.find(worst[i]);
+                    }
+                    sink += roots;
+                    return (long) worstReps * (worst.length / 2 + worst.length);
+                };
+            });
+        }
+    }
+
+    // Full PercolationStats trials on one thread, reusing one trial context as PercolationStats does
+    private void benchmarkTrials(int n) {
+        int trials = repetitions((long) n * n);                         // Keep each iteration at a few million opens
+        for (Map.Entry<String, IntFunction<UnionFind>> engine : ENGINES.entrySet()) {
+            PercolationTrial trial = new PercolationTrial(n, engine.getValue());
+            RandomStream random = new RandomStream(SEED, 0);
+            measure("trial", params("n", "" + n, "engine", engine.getKey()), () -> () -> {
+                long opened = 0;
+                for (int t = 0; t < trials; t++)
+                    opened += trial.run(random);
+                sink += opened;
+                return trials;
+            });
+        }
+    }
+
+    // Reading ints from a site file through In's byte-level tokenizer versus through a Scanner-backed In
+    private void benchmarkReadInts() throws IOException {
+        int n = 1000;
+        File file = File.createTempFile("percolation-sites", ".txt");
+        file.deleteOnExit();
+        RandomStream random = new RandomStream(SEED, 0);
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8))) {
+            out.println(n);
+            for (int i = 0; i < n * n; i++)
+                out.println((1 + random.uniform(n)) + " " + (1 + random.uniform(n)));
+        }
+        long ints = 2L * n * n + 1;
+
+        measure("readInt", params("reader", "In (byte-level)"), () -> () -> {
+            In in = new In(file);
+            long sum = 0;
+            while (!in.isEmpty())
+                sum += in.readInt();
+            in.close();
+            sink += sum;
+            return ints;
+        });
+        measure("readInt", params("reader", "In (Scanner)"), () -> () -> {
+            In in;
+            try {
+                in = new In(new Scanner(file, "UTF-8"));
+            } catch (FileNotFoundException e) {
+                throw new UncheckedIOException(e);
+            }
+            long sum = 0;
+            while (!in.isEmpty())
+                sum += in.readInt();
+            in.close();
+            sink += sum;
+            return ints;
+        });
+    }
+
+    // Writes every result as a JSON array shaped like JMH's JSON output (benchmark, params, primaryMetric)
+    private void writeJson(String filename) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(filename), StandardCharsets.UTF_8))) {
+            out.println("[");
+            for (int r = 0; r < results.size(); r++) {
+                Result result = results.get(r);
+                out.println("  {");
+                out.println("    \"benchmark\": \"" + result.benchmark + "\",");
+                out.println("    \"mode\": \"avgt\",");
+                out.println("    \"warmupIterations\": " + WARMUP_ITERATIONS + ",");
+                out.println("    \"measurementIterations\": " + MEASUREMENT_ITERATIONS + ",");
+                out.print("    \"params\": {");
+                int p = 0;
+                for (Map.Entry<String, String> param : result.params.entrySet())
+                    out.print((p++ == 0 ? " " : ", ") + "\"" + param.getKey() + "\": \"" + param.getValue() + "\"");
+                out.println(" },");
+                out.println("    \"primaryMetric\": {");
+                out.println("      \"score\": " + json(result.score()) + ",");
+                out.println("      \"scoreError\": " + json(result.error()) + ",");
+                out.println("      \"scoreUnit\": \"ns/op\",");
+                out.print("      \"rawData\": [");
+                for (int i = 0; i < result.nanosPerOp.length; i++)
+                    out.print((i == 0 ? "" : ", ") + json(result.nanosPerOp[i]));
+                out.println("]");
+                out.println("    }");
+                out.println(r == results.size() - 1 ? "  }" : "  },");
+            }
+            out.println("]");
+        }
+    }
+
+    private static String json(double x) {
+        return Double.isNaN(x) ? "\"NaN\"" : String.format(Locale.ROOT, "%.6f", x);
+    }
+
+    public static void main(String[] args) throws IOException {
+        String output = args.length > 0 ? args[0] : "benchmark-results.json";
+        int[] sizes = {100, 500, 1000, 4000};
+        if (args.length > 1) {
+            sizes = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++)
+                sizes[i - 1] = Integer.parseInt(args[i]);
+        }
+
+        PercolationBenchmark benchmark = new PercolationBenchmark();
+        for (int n : sizes) {
+            benchmark.benchmarkOpen(n);
+            benchmark.benchmarkQueries(n);
+            benchmark.benchmarkUnionFind(n);
+            benchmark.benchmarkTrials(n);
+        }
+        benchmark.benchmarkReadInts();
+        benchmark.writeJson(output);
+        StdOut.println("Results written to " + output + " (" + sink + ")");
+    }
+}
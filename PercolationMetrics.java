@@ -0,0 +1,185 @@
+/******************************************************************************
+ *  Compilation:  javac PercolationMetrics.java
+ *  Dependencies: Accumulator.java
+ *
+ *  Optional counters describing the work done by the union-find engines
+ *  and the time taken by Monte Carlo trials. Recording is off unless the
+ *  JVM is started with -Dpercolation.metrics=true.
+ *
+ ******************************************************************************/
+
+/**
+ * The {@code PercolationMetrics} class is a mutable data type that counts
+ * <em>union</em> and <em>find</em> operations, the length of the parent
+ * chains walked by <em>find</em>, and the wall-clock time of percolation
+ * trials.
+ * <p>
+ * Recording is controlled by {@link #ENABLED}, which is read once from the
+ * system property {@code percolation.metrics}. The engines test it before
+ * touching their counters; since it is a {@code static final} field, the
+ * JIT compiler removes the instrumentation entirely when it is
+ * {@code false} (the default), so uninstrumented runs pay nothing for it.
+ * <p>
+ * Every {@link WeightedQuickUnionUF} keeps its own counters, so engines used
+ * by different threads never share one. {@link UnionFind#metrics()},
+ * {@link Percolation#metrics()}, {@link PercolationTrial#metrics()} and
+ * {@link PercolationStats#metrics()} return snapshots, which can be
+ * combined with {@link #merge(PercolationMetrics)}.
+ */
+public class PercolationMetrics {
+
+    /**
+     * True if metrics are recorded, as set by the system property
+     * {@code percolation.metrics}.
+     */
+    public static final boolean ENABLED = Boolean.getBoolean("percolation.metrics");
+
+    private long unions = 0;                            // number of unions that merged two sets
+    private long finds = 0;                             // number of finds
+    private long pathSteps = 0;                         // number of parent links followed by all finds
+    private int maxPathLength = 0;                      // most parent links followed by one find
+    private final Accumulator trialMillis = new Accumulator();   // wall-clock time of each trial
+
+    /**
+     * Initializes an empty set of metrics.
+     */
+    public PercolationMetrics() {
+    }
+
+    /**
+     * Records a call to <em>find</em> that followed the given number of parent links.
+     *
+     * @param pathLength the number of parent links followed
+     */
+    public void recordFind(int pathLength) {
+        finds++;
+        pathSteps += pathLength;
+        if (pathLength > maxPathLength) maxPathLength = pathLength;
+    }
+
+    /**
+     * Records a call to <em>union</em> that merged two sets.
+     */
+    public void recordUnion() {
+        unions++;
+    }
+
+    /**
+     * Records a trial that took the given wall-clock time.
+     *
+     * @param nanos the duration of the trial, in nanoseconds
+     */
+    public void recordTrial(long nanos) {
+        trialMillis.addDataValue(nanos / 1e6);
+    }
+
+    /**
+     * Adds all of the counts recorded by {@code that} to these metrics.
+     * {@code that} is not modified.
+     *
+     * @param that the other metrics
+     * @throws IllegalArgumentException if {@code that} is {@code null}
+     */
+    public void merge(PercolationMetrics that) {
+        if (that == null) throw new IllegalArgumentException("argument is null");
+        unions += that.unions;
+        finds += that.finds;
+        pathSteps += that.pathSteps;
+        if (that.maxPathLength > maxPathLength) maxPathLength = that.maxPathLength;
+        trialMillis.merge(that.trialMillis);
+    }
+
+    /**
+     * Returns an independent copy of these metrics.
+     *
+     * @return a copy of these metrics
+     */
+    public PercolationMetrics copy() {
+        PercolationMetrics copy = new PercolationMetrics();
+        copy.merge(this);
+        return copy;
+    }
+
+    /**
+     * Returns the number of unions that merged two sets.
+     *
+     * @return the number of unions
+     */
+    public long unions() {
+        return unions;
+    }
+
+    /**
+     * Returns the number of finds.
+     *
+     * @return the number of finds
+     */
+    public long finds() {
+        return finds;
+    }
+
+    /**
+     * Returns the average number of parent links followed per find.
+     *
+     * @return the average path length; {@code Double.NaN} if there were no finds
+     */
+    public double averagePathLength() {
+        if (finds == 0) return Double.NaN;
+        return (double) pathSteps / finds;
+    }
+
+    /**
+     * Returns the largest number of parent links followed by one find.
+     *
+     * @return the longest path walked
+     */
+    public int maxPathLength() {
+        return maxPathLength;
+    }
+
+    /**
+     * Returns the number of trials timed.
+     *
+     * @return the number of trials timed
+     */
+    public int trials() {
+        return trialMillis.count();
+    }
+
+    /**
+     * Returns the mean wall-clock time of a trial.
+     *
+     * @return the mean time of a trial, in milliseconds; {@code Double.NaN} if no trials were timed
+     */
+    public double meanTrialMillis() {
+        if (trialMillis.count() == 0) return Double.NaN;
+        return trialMillis.mean();
+    }
+
+    /**
+     * Returns the longest wall-clock time of a trial.
+     *
+     * @return the longest time of a trial, in milliseconds; {@code Double.NaN} if no trials were timed
+     */
+    public double maxTrialMillis() {
+        if (trialMillis.count() == 0) return Double.NaN;
+        return trialMillis.max();
+    }
+
+    /**
+     * Returns a multi-line summary of these metrics.
+     *
+     * @return a summary of these metrics
+     */
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append(String.format("Unions                  =  %d%n", unions));
+        s.append(String.format("Finds                   =  %d%n", finds));
+        s.append(String.format("Average path length     =  %.3f%n", averagePathLength()));
+        s.append(String.format("Maximum path length     =  %d%n", maxPathLength));
+        s.append(String.format("Mean trial time         =  %.3f ms%n", meanTrialMillis()));
+        s.append(String.format("Maximum trial time      =  %.3f ms", maxTrialMillis()));
+        return s.toString();
+    }
+}
@@ -0,0 +1,34 @@
+/******************************************************************************
+ *  Dependencies: PercolationMetrics.java
+ *
+ *  Common API of the percolation models driven by the Monte Carlo code (PercolationTrial, PercolationStats), so that
+ *  the same driver can estimate the threshold of any lattice. A model numbers its sites (or, in bond percolation, its
+ *  bonds) 0 through size() - 1; a trial opens them in a uniformly random order until the model percolates, and the
+ *  threshold estimate is the fraction of them open at that moment.
+ *
+ ******************************************************************************/
+
+// Percolation system whose sites are addressed by 0-based linear index and which can be reset between trials.
+public interface PercolationModel {
+
+    // Returns the number of sites that a trial may open
+    int size();
+
+    // Opens siteIndices[from] through siteIndices[to - 1] in order, stopping as soon as the system percolates
+    // Returns the index i such that opening siteIndices[i] made the system percolate (later sites are left as they
+    // were), or -1 if it does not percolate after the last site; if it already percolated, every site is opened and
+    // -1 is returned
+    int openAll(int[] siteIndices, int from, int to);
+
+    // Returns the number of open sites
+    int numberOfOpenSites();
+
+    // Returns true if system percolates
+    boolean percolates();
+
+    // Blocks every site again, restoring the state of a newly created model without reallocating it
+    void reset();
+
+    // Returns a snapshot of the union-find operations recorded so far (empty unless PercolationMetrics.ENABLED)
+    PercolationMetrics metrics();
+}
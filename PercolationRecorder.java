@@ -0,0 +1,287 @@
+/******************************************************************************
+ *  Compilation:  javac PercolationRecorder.java
+ *  Execution:    java PercolationRecorder input.txt output.gif [every] [delay]
+ *                java PercolationRecorder input.bin frames [every] [delay]
+ *
+ *  Dependencies: In.java
+ *                Percolation.java
+ *                PercolationRenderer.java
+ *                SiteSequence.java
+ *                StdOut.java
+ *
+ *  Records the animation PercolationVisualizer would show for a text or
+ *  binary site-sequence file without opening a window, so it can run on
+ *  machines with no display (run with -Djava.awt.headless=true).
+ *
+ *  Every site is opened in turn and drawn into an offscreen raster by
+ *  PercolationRenderer; after every k-th site (and after the last one) a
+ *  snapshot of the raster is handed to an encoder thread through a bounded
+ *  queue, so drawing and image encoding overlap and at most QUEUE_CAPACITY
+ *  frames are held in memory. If the output name ends in ".gif" the frames
+ *  are written as a looping animated GIF showing each frame for the given
+ *  delay in milliseconds; otherwise the output is a directory that receives
+ *  a numbered sequence of PNG files frame000000.png, frame000001.png, ...
+ *
+ ******************************************************************************/
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOInvalidTreeException;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+
+public class PercolationRecorder {
+    private static final int DELAY = 100;                   // Default milliseconds per GIF frame (as PercolationVisualizer)
+    private static final int FRAME_PIXELS = 512;            // Target width of a frame, in pixels
+    private static final int QUEUE_CAPACITY = 16;           // Frames waiting to be encoded before drawing blocks
+    private static final BufferedImage END = new BufferedImage(1, 1, BufferedImage.TYPE_BYTE_INDEXED);  // Marks the last frame
+
+    private final Percolation perc;                         // System being recorded
+    private final PercolationRenderer renderer;             // Offscreen renderer of perc
+    private final int every;                                // Number of sites opened per frame
+    private final BlockingQueue<BufferedImage> frames;      // Snapshots waiting to be encoded
+    private final ExecutorService encoder;                  // Single thread writing frames
+    private final Future<Integer> encoded;                  // Number of frames written, once the encoder finishes
+    private int steps = 0;                                  // Number of sites opened
+    private boolean pending = false;                        // True if sites were opened since the last frame
+
+    // Starts recording an n-by-n system to the named GIF file or PNG directory, one frame per every sites opened
+    public PercolationRecorder(int n, String output, int every, int delay) {
+        if (output == null)
+            throw new IllegalArgumentException("argument is null");
+        if (every <= 0 || delay < 0)
+            throw new IllegalArgumentException("Arguments are out of range");
+        this.every = every;
+        perc = new Percolation(n);
+        renderer = PercolationRenderer.offscreen(perc, n, Math.max(1, FRAME_PIXELS / n));
+
+        FrameWriter writer;
+        try {
+            writer = output.toLowerCase().endsWith(".gif") ? new GifWriter(new File(output), delay) : new PngWriter(new File(output));
+        }
+        catch (IOException ioe) {
+            throw new UncheckedIOException("Could not open " + output, ioe);
+        }
+        frames = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        encoder = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "frame-encoder");
+            thread.setDaemon(true);                         // Never keep the JVM alive if drawing fails
+            return thread;
+        });
+        encoded = encoder.submit(() -> encode(writer));
+        enqueue(renderer.snapshot());                       // Frame of the all-blocked grid
+    }
+
+    // Opens site (row, col), queueing a frame if it completes a group of every sites
+    public void open(int row, int col) {
+        perc.open(row, col);
+        renderer.opened(row, col);
+        pending = true;
+        if (++steps % every == 0) {
+            enqueue(renderer.snapshot());
+            pending = false;
+        }
+    }
+
+    // Queues the final frame, waits for every frame to be written, and returns the number of frames written
+    public int close() {
+        if (pending) {
+            enqueue(renderer.snapshot());
+            pending = false;
+        }
+        enqueue(END);
+        try {
+            return encoded.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for frames to be written", e);
+        }
+        catch (ExecutionException e) {
+            throw failure(e);
+        }
+        finally {
+            encoder.shutdownNow();
+        }
+    }
+
+    // Hands a frame to the encoder, waiting while the queue is full unless the encoder has failed
+    private void enqueue(BufferedImage frame) {
+        try {
+            while (!frames.offer(frame, 100, TimeUnit.MILLISECONDS)) {
+                if (encoded.isDone()) {
+                    encoded.get();                          // Rethrows the encoder's failure
+                    throw new IllegalStateException("Frame encoder stopped early");
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing a frame", e);
+        }
+        catch (ExecutionException e) {
+            throw failure(e);
+        }
+    }
+
+    // Writes queued frames until the end marker, then closes the writer; runs on the encoder thread
+    private int encode(FrameWriter writer) throws IOException, InterruptedException {
+        int count = 0;
+        try {
+            for (BufferedImage frame = frames.take(); frame != END; frame = frames.take()) {
+                writer.write(frame);
+                count++;
+            }
+        }
+        finally {
+            writer.close();
+        }
+        return count;
+    }
+
+    // Unwraps the encoder's exception
+    private static RuntimeException failure(ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException)
+            return (RuntimeException) e.getCause();
+        if (e.getCause() instanceof IOException)
+            return new UncheckedIOException("Could not write frame", (IOException) e.getCause());
+        return new IllegalStateException("Frame encoder failed", e.getCause());
+    }
+
+    // Destination of encoded frames
+    private interface FrameWriter {
+        void write(BufferedImage frame) throws IOException;
+        void close() throws IOException;
+    }
+
+    // Writes each frame to its own numbered PNG file in a directory
+    private static class PngWriter implements FrameWriter {
+        private final File directory;
+        private int index = 0;
+
+        PngWriter(File directory) throws IOException {
+            if (!directory.isDirectory() && !directory.mkdirs())
+                throw new IOException("Could not create directory " + directory);
+            this.directory = directory;
+        }
+
+        public void write(BufferedImage frame) throws IOException {
+            ImageIO.write(frame, "png", new File(directory, String.format("frame%06d.png", index++)));
+        }
+
+        public void close() { }
+    }
+
+    // Writes frames to a single looping animated GIF
+    private static class GifWriter implements FrameWriter {
+        private final ImageOutputStream out;
+        private final ImageWriter writer;
+        private final int delay;                            // Hundredths of a second per frame
+        private IIOMetadata first;                          // Metadata of the first frame, which also sets looping
+        private IIOMetadata rest;                           // Metadata of every later frame
+
+        GifWriter(File file, int delay) throws IOException {
+            writer = ImageIO.getImageWritersByFormatName("gif").next();
+            if (file.exists() && !file.delete())
+                throw new IOException("Could not replace " + file);
+            out = ImageIO.createImageOutputStream(file);
+            if (out == null)
+                throw new IOException("Could not create " + file);
+            writer.setOutput(out);
+            writer.prepareWriteSequence(null);
+            this.delay = Math.max(1, (delay + 5) / 10);
+        }
+
+        public void write(BufferedImage frame) throws IOException {
+            IIOMetadata metadata = rest;
+            if (first == null) {
+                first = metadata(frame, true);
+                rest = metadata(frame, false);
+                metadata = first;
+            }
+            writer.writeToSequence(new IIOImage(frame, null, metadata), null);
+        }
+
+        public void close() throws IOException {
+            try {
+                writer.endWriteSequence();
+            }
+            finally {
+                writer.dispose();
+                out.close();
+            }
+        }
+
+        // Returns metadata giving the frame delay and, if loop is true, an endless loop of the whole animation
+        private IIOMetadata metadata(BufferedImage frame, boolean loop) throws IIOInvalidTreeException {
+            IIOMetadata data = writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(frame), null);
+            String format = data.getNativeMetadataFormatName();
+            IIOMetadataNode root = (IIOMetadataNode) data.getAsTree(format);
+
+            IIOMetadataNode control = new IIOMetadataNode("GraphicControlExtension");
+            control.setAttribute("disposalMethod", "none");
+            control.setAttribute("userInputFlag", "FALSE");
+            control.setAttribute("transparentColorFlag", "FALSE");
+            control.setAttribute("delayTime", Integer.toString(delay));
+            control.setAttribute("transparentColorIndex", "0");
+            root.appendChild(control);
+
+            if (loop) {
+                IIOMetadataNode netscape = new IIOMetadataNode("ApplicationExtension");
+                netscape.setAttribute("applicationID", "NETSCAPE");
+                netscape.setAttribute("authenticationCode", "2.0");
+                netscape.setUserObject(new byte[] {1, 0, 0});   // Loop forever
+                IIOMetadataNode extensions = new IIOMetadataNode("ApplicationExtensions");
+                extensions.appendChild(netscape);
+                root.appendChild(extensions);
+            }
+
+            data.setFromTree(format, root);
+            return data;
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            StdOut.println("Usage: java PercolationRecorder input output.gif|directory [every] [delay]");
+            return;
+        }
+        int every = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        int delay = args.length > 3 ? Integer.parseInt(args[3]) : DELAY;
+
+        PercolationRecorder recorder;
+        if (SiteSequence.isSiteSequence(args[0])) {
+            SiteSequence sites = new SiteSequence(args[0]);
+            recorder = new PercolationRecorder(sites.n(), args[1], every, delay);
+            while (sites.hasNext()) {
+                int site = sites.next();
+                recorder.open(sites.row(site), sites.col(site));
+            }
+        }
+        else {
+            In in = new In(args[0]);
+            recorder = new PercolationRecorder(in.readInt(), args[1], every, delay);
+            while (!in.isEmpty()) {
+                int i = in.readInt();
+                int j = in.readInt();
+                recorder.open(i, j);
+            }
+            in.close();
+        }
+        StdOut.println("Wrote " + recorder.close() + " frames to " + args[1]);
+    }
+}
@@ -0,0 +1,242 @@
+/******************************************************************************
+ *  Compilation:  javac PercolationRenderer.java
+ *
+ *  Dependencies: Percolation.java
+ *                StdDraw.java
+ *
+ *  Draws an n-by-n percolation system with StdDraw, in the same layout and
+ *  colors as PercolationVisualizer.draw, but incrementally: after the first
+ *  frame, only the sites whose open/full state changed are repainted.
+ *
+ *  The renderer remembers what it last drew for each site. When a site is
+ *  opened it is painted white, or light blue if it is full. A newly full
+ *  site may fill a whole component of open sites that were drawn white;
+ *  every open site reachable from it is now full, so a breadth-first search
+ *  from the opened site over open sites not yet drawn full visits exactly
+ *  the sites that changed. The cost of a frame is proportional to the number
+ *  of sites repainted rather than to n^2.
+ *
+ *  Sites are painted either as StdDraw squares (vector mode) or straight
+ *  into the int[] pixel buffer of an image holding a k-by-k block of pixels
+ *  per site (raster mode), which is blitted to the canvas once per frame by
+ *  show(). Raster mode skips the antialiased shape fills of StdDraw, so it
+ *  stays interactive on grids of thousands of rows; it is the default
+ *  above RASTER_THRESHOLD rows.
+ *
+ *  A renderer created with offscreen() never touches StdDraw, so it works
+ *  without a display: snapshot() copies the current raster, with the status
+ *  line below it, into a new image (see PercolationRecorder).
+ *
+ ******************************************************************************/
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.IndexColorModel;
+import java.util.Arrays;
+
+public class PercolationRenderer {
+    private static final byte BLOCKED = 0;                  // Site drawn black
+    private static final byte OPEN = 1;                     // Site drawn white
+    private static final byte FULL = 2;                     // Site drawn light blue
+    private static final int RASTER_THRESHOLD = 100;        // Largest n drawn in vector mode by default
+    private static final int RASTER_PIXELS = 1024;          // Target width of the raster image, in pixels
+    private static final int STATUS_HEIGHT = 20;            // Height in pixels of the status line below a snapshot
+    private static final int BLOCKED_RGB = Color.BLACK.getRGB();
+    private static final int OPEN_RGB = Color.WHITE.getRGB();
+    private static final int FULL_RGB = new Color(103, 198, 243).getRGB();  // StdDraw.BOOK_LIGHT_BLUE, without loading StdDraw
+    private static final IndexColorModel SNAPSHOT_COLORS = new IndexColorModel(8, 3,   // Palette of snapshots, by site state
+            new byte[] {0, (byte) 255, 103}, new byte[] {0, (byte) 255, (byte) 198}, new byte[] {0, (byte) 255, (byte) 243});
+
+    private final Percolation perc;                         // System being drawn
+    private final int n;                                    // Number of rows/columns
+    private final byte[] drawn;                             // State last drawn for each site, indexed n * (row - 1) + (col - 1)
+    private final int[] queue;                              // Breadth-first search queue of newly full sites
+    private final BufferedImage image;                      // Raster image of the grid, or null in vector mode
+    private final int[] pixels;                             // Pixel buffer backing image, row-major
+    private final int block;                                // Width in pixels of the block painted for each site
+    private final int inset;                                // Pixels of black left around each site block
+    private final boolean onscreen;                         // True if drawing to the StdDraw canvas
+
+    // Creates a renderer for the given n-by-n percolation system and draws it in full, in raster mode if n is large
+    public PercolationRenderer(Percolation perc, int n) {
+        this(perc, n, n > RASTER_THRESHOLD);
+    }
+
+    // Creates a renderer for the given n-by-n percolation system and draws it in full
+    public PercolationRenderer(Percolation perc, int n, boolean raster) {
+        this(perc, n, raster ? Math.max(1, RASTER_PIXELS / n) : 0, true);
+    }
+
+    // Creates a raster renderer with the given block width in pixels per site that draws to an image only
+    public static PercolationRenderer offscreen(Percolation perc, int n, int block) {
+        if (block <= 0)
+            throw new IllegalArgumentException("Block width must be greater than zero");
+        return new PercolationRenderer(perc, n, block, false);
+    }
+
+    // Creates a renderer painting block-by-block pixels per site into an image, or StdDraw squares if block is 0
+    private PercolationRenderer(Percolation perc, int n, int block, boolean onscreen) {
+        if (perc == null)
+            throw new IllegalArgumentException("argument is null");
+        if (n <= 0)
+            throw new IllegalArgumentException("Grid must have size n > 0");
+        if ((long) n * block > RASTER_PIXELS * 16)
+            throw new IllegalArgumentException("Raster image would be wider than " + RASTER_PIXELS * 16 + " pixels");
+        this.perc = perc;
+        this.n = n;
+        drawn = new byte[n * n];
+        queue = new int[n * n];
+        this.onscreen = onscreen;
+        this.block = block;
+        if (block > 0) {
+            inset = (int) Math.round(0.05 * block);         // Same 10% gap as a square of half-width 0.45
+            image = new BufferedImage(n * block, n * block, BufferedImage.TYPE_INT_RGB);
+            pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        }
+        else {
+            inset = 0;
+            image = null;
+            pixels = null;
+        }
+        drawAll();
+    }
+
+    // Clears the canvas (or image) and draws every site, as PercolationVisualizer.draw does
+    public void drawAll() {
+        if (onscreen) {
+            StdDraw.clear();
+            StdDraw.setPenColor(StdDraw.BLACK);
+            StdDraw.setXscale(-0.05 * n, 1.05 * n);
+            StdDraw.setYscale(-0.05 * n, 1.05 * n);         // Leave a border to write text
+        }
+        if (image == null)
+            StdDraw.filledSquare(n / 2.0, n / 2.0, n / 2.0);
+        else
+            Arrays.fill(pixels, BLOCKED_RGB);
+
+        for (int row = 1; row <= n; row++) {
+            for (int col = 1; col <= n; col++) {
+                int site = n * (row - 1) + (col - 1);
+                if (perc.isFull(row, col))
+                    drawn[site] = FULL;
+                else if (perc.isOpen(row, col))
+                    drawn[site] = OPEN;
+                else {
+                    drawn[site] = BLOCKED;
+                    continue;                               // Already covered by the black background
+                }
+                drawSite(site);
+            }
+        }
+    }
+
+    // Repaints the sites changed by opening site (row, col)
+    public void opened(int row, int col) {
+        if (row < 1 || col < 1 || row > n || col > n)
+            throw new IllegalArgumentException("row or column argument is outside of range");
+        int site = n * (row - 1) + (col - 1);
+        if (drawn[site] == BLOCKED && perc.isOpen(row, col)) {
+            if (perc.isFull(row, col))
+                fill(site);
+            else {
+                drawn[site] = OPEN;
+                drawSite(site);
+            }
+        }
+    }
+
+    // Rewrites the status text and copies the frame to the screen (blitting the raster image first in raster mode)
+    public void show() {
+        if (!onscreen)
+            throw new IllegalStateException("Renderer draws offscreen");
+        if (image != null)
+            StdDraw.picture(n / 2.0, n / 2.0, image, n, n);
+        drawStatus();
+        StdDraw.show();
+    }
+
+    // Returns a copy of the raster image with the status line below it
+    // The copy is independent of the renderer, so it can be encoded on another thread while drawing continues.
+    public BufferedImage snapshot() {
+        if (image == null)
+            throw new IllegalStateException("Renderer is not in raster mode");
+        int width = n * block;
+        BufferedImage frame = new BufferedImage(width, width + STATUS_HEIGHT, BufferedImage.TYPE_BYTE_INDEXED, SNAPSHOT_COLORS);
+        byte[] indices = ((DataBufferByte) frame.getRaster().getDataBuffer()).getData();
+        for (int i = 0; i < pixels.length; i++) {
+            int rgb = pixels[i];
+            indices[i] = rgb == FULL_RGB ? (byte) 2 : rgb == OPEN_RGB ? (byte) 1 : 0;
+        }
+        Arrays.fill(indices, pixels.length, indices.length, (byte) 1);   // White status line
+
+        Graphics2D g = frame.createGraphics();
+        g.setFont(new Font("SansSerif", Font.PLAIN, 12));
+        g.setColor(Color.BLACK);
+        FontMetrics metrics = g.getFontMetrics();
+        int baseline = width + (STATUS_HEIGHT + metrics.getAscent() - metrics.getDescent()) / 2;
+        String opened = perc.numberOfOpenSites() + " open sites";
+        String status = perc.percolates() ? "percolates" : "does not percolate";
+        g.drawString(opened, width / 4 - metrics.stringWidth(opened) / 2, baseline);
+        g.drawString(status, 3 * width / 4 - metrics.stringWidth(status) / 2, baseline);
+        g.dispose();
+        return frame;
+    }
+
+    // Paints the site full, then every open site connected to it that was not yet drawn full
+    private void fill(int site) {
+        int head = 0;
+        int tail = 0;
+        drawn[site] = FULL;
+        queue[tail++] = site;
+        while (head < tail) {
+            int s = queue[head++];
+            drawSite(s);
+            int row = s / n;
+            int col = s % n;
+            if (row > 0)     tail = visit(s - n, tail);
+            if (row < n - 1) tail = visit(s + n, tail);
+            if (col > 0)     tail = visit(s - 1, tail);
+            if (col < n - 1) tail = visit(s + 1, tail);
+        }
+    }
+
+    // Queues an open neighbor of a full site unless it is already drawn full, returning the new queue tail
+    private int visit(int site, int tail) {
+        if (drawn[site] == FULL || !perc.isOpen(site / n + 1, site % n + 1))
+            return tail;
+        drawn[site] = FULL;
+        queue[tail] = site;
+        return tail + 1;
+    }
+
+    // Draws a single site in the color of its recorded state
+    private void drawSite(int site) {
+        if (image == null) {
+            StdDraw.setPenColor(drawn[site] == FULL ? StdDraw.BOOK_LIGHT_BLUE : StdDraw.WHITE);
+            StdDraw.filledSquare(site % n + 0.5, n - site / n - 0.5, 0.45);
+            return;
+        }
+
+        int rgb = drawn[site] == FULL ? FULL_RGB : OPEN_RGB;
+        int width = n * block;
+        int x = (site % n) * block;
+        int y = (site / n) * block;                         // Row 1 is the top row of the image
+        for (int dy = inset; dy < block - inset; dy++) {
+            int offset = (y + dy) * width + x;
+            Arrays.fill(pixels, offset + inset, offset + block - inset, rgb);
+        }
+    }
+
+    // Erases and rewrites the status text below the grid
+    private void drawStatus() {
+        StdDraw.setPenColor(StdDraw.WHITE);
+        StdDraw.filledRectangle(n / 2.0, -0.025 * n, 0.55 * n, 0.025 * n);
+        StdDraw.setFont(new Font("SansSerif", Font.PLAIN, 12));
+        StdDraw.setPenColor(StdDraw.BLACK);
+        StdDraw.text(0.25 * n, -0.025 * n, perc.numberOfOpenSites() + " open sites");
+        if (perc.percolates()) StdDraw.text(0.75 * n, -0.025 * n, "percolates");
+        else StdDraw.text(0.75 * n, -0.025 * n, "does not percolate");
+    }
+}
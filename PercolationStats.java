@@ -5,8 +5,14 @@
  *  Compilation:  javac PercolationStats.java
  *  Execution:    java PercolationStats
  *
- *  Dependencies: Percolation.java
- *                StdStats.java
+ *  Dependencies: Accumulator.java
+ *                Percolation.java
+ *                PercolationMetrics.java
+ *                PercolationModel.java
+ *                PercolationTrial.java
+ *                RandomStream.java
+ *                TrialExecutor.java
+ *                UnionFind.java
  *                StdRandom.java
  *                StdIn.java
  *                StdOut.java
@@ -15,86 +21,175 @@
  *  The program then performs a Monte Carlo simulation consisting of t number of trials on an n size percolation system.
  *  For each trial, sites are opened at uniform random in the n-by-n percolation system until it percolates.
  *  The ratio of opened sites over all sites in the system is then saved as an estimation of the percolation threshold, p*.
- *  Once all trials are complete, the program then calculates the sample mean & standard deviation of p*, which it outputs
- *  along with a 95% confidence interval for the value of p*.
+ *  The sample mean & standard deviation of p* are accumulated as trials complete (without storing each trial's result),
+ *  and once all trials are complete the program outputs them along with a 95% confidence interval for the value of p*.
+ *  Trials are independent of one another, so they may optionally be partitioned across a fixed pool of worker threads,
+ *  each of which reuses a single PercolationTrial (and so a single Percolation instance). Trial t always draws from the
+ *  random stream derived from the master seed and t, so results are reproducible (via StdRandom.setSeed) regardless of
+ *  the number of threads.
+ *  Alternatively, untilConfidence runs batches of trials, updating the sample mean & standard deviation incrementally,
+ *  until the 95% confidence interval is no wider than a requested half-width on either side of the mean.
+ *  Any other PercolationModel (such as Percolation3D) can be simulated by passing a factory that creates one model per
+ *  worker thread; the threshold estimate is then the fraction of the model's sites open when it first percolates.
+ *  When run with -Dpercolation.metrics=true, the union-find operations and the wall-clock time of every trial are
+ *  recorded as well, and printed after the results.
  *
  ******************************************************************************/
 
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
 // Performs a Monte Carlo simulation of a percolation system to approximate threshold value (p*)
 public class PercolationStats {
     // Declare private class members
     private static final double CONFIDENCE_95 = 1.96;                   // Z-value for 95% confidence level
-    private final double[] thresholds;                                  // Array of threshold values from each trial
+    private static final int MIN_TRIALS = 30;                           // Fewest trials whose standard deviation is trusted to stop a run early
+    private final int trials;                                           // Number of trials performed
     private double mean = 0;                                            // Mean of threshold values
     private double stddev = 0;                                          // Standard deviation of threshold values
     private double confidenceHi;                                        // High end of confidence interval
     private double confidenceLow = 0;                                   // Low end of confidence interval
+    private final PercolationMetrics metrics;                           // Operations and trial times (empty unless enabled)
 
     // Perform independent trials on an n x n grid
     // Accepts grid row/column length and number of simulations to perform as integer arguments
     public PercolationStats(int n, int trials) {
-        if (n <= 0 || trials <= 0)                                      // Throw error if arguments are out of range
+        this(n, trials, 1);
+    }
+
+    // Perform independent trials on an n x n grid, partitioning the trials across a fixed pool of worker threads
+    // Accepts grid row/column length, number of simulations to perform and number of worker threads as integer arguments
+    public PercolationStats(int n, int trials, int threads) {
+        this(n, trials, threads, WeightedQuickUnionUF::new);
+    }
+
+    // Perform independent trials on an n x n grid whose percolation models use the given union-find engine
+    // Accepts grid row/column length, number of simulations, number of worker threads and union-find engine as arguments
+    public PercolationStats(int n, int trials, int threads, IntFunction<UnionFind> engine) {
+        if (n <= 0 || trials <= 0 || threads <= 0)                      // Throw error if arguments are out of range
             throw new IllegalArgumentException("Arguments must be greater than zero!");
+        if (engine == null)
+            throw new IllegalArgumentException("Union-find engine must not be null");
 
-        // Initialize variables
-        int gridSize = n * n;                                           // Grid size
-        int numBlocked;                                                 // Number of blocked sites
-        thresholds = new double[trials];                                // Array of threshold values
-        Percolation percolation;                                        // Object used to model percolation system
-        Site site;                                                      // Temporary object to store the location (row, column) of an individual site in the percolation model
-        Site[] blockedSites;                                            // Array of blocked site locations
-
-
-        // Perform trials
-        for (int t = 0; t < trials; t++) {                              // For each trial,
-            percolation = new Percolation(n);                           // Initialize a new n-by-n percolation model
-            blockedSites = new Site[gridSize];                          // Initialize a new list of blocked sites in the model
-            numBlocked = gridSize;
-
-            // Fill blockedSites array with all row/column locations in the percolation grid
-            for (int row = 0; row < n; row++)
-                for (int col = 0; col < n; col++)
-                    blockedSites[n * row + col] = new Site(row + 1, col + 1);
-
-            while (!percolation.percolates()) {                         // Until the system percolates
-                int siteIdx = StdRandom.uniform(numBlocked);            // Generate random blockedSites index
-                site = blockedSites[siteIdx];                           // Set current site to site at index
-                percolation.open(site.getRow(), site.getCol());         // Open site
-                numBlocked--;                                           // Decrement number of blocked sites
-
-                // Swap opened site with last blocked site in blockedSites range
-                blockedSites[siteIdx] = blockedSites[numBlocked];
-                blockedSites[numBlocked] = site;
-
-            }                                                           // Once the system percolates,
-            thresholds[t] = (double) percolation.numberOfOpenSites()
-                    / (double) gridSize;                                // Calculate and set threshold value at current index
-        }                                                               // Begin next trial
-
-        // After all trials have been completed, calculate statistics
-        mean = StdStats.mean(thresholds);
-        stddev = StdStats.stddev(thresholds);
-        confidenceHi = mean + (CONFIDENCE_95 * stddev / Math.sqrt(trials));
-        confidenceLow = mean - (CONFIDENCE_95 * stddev / Math.sqrt(trials));
+        long seed = StdRandom.uniform(Long.MAX_VALUE);                  // Master seed; trial t uses the random stream (seed, t)
+        metrics = new PercolationMetrics();
+        Accumulator stats = runTrials(() -> new Percolation(n, engine), 0, trials, threads, seed, metrics);
+
+        // After all trials have been completed, record statistics
+        this.trials = trials;
+        setStatistics(stats);
     }
 
-    // Site object holds row and column integer values corresponding to the location of a grid element
-    private static class Site {
-        private final int row;
-        private final int col;
+    // Perform independent trials on the percolation models created by model (one per worker thread)
+    // Accepts a model factory such as () -> new Percolation3D(50), number of simulations and number of worker threads
+    public PercolationStats(Supplier<? extends PercolationModel> model, int trials, int threads) {
+        if (trials <= 0 || threads <= 0)                                // Throw error if arguments are out of range
+            throw new IllegalArgumentException("Arguments must be greater than zero!");
+        if (model == null)
+            throw new IllegalArgumentException("Model factory must not be null");
 
-        Site(int row, int col) {
-            this.row = row;
-            this.col = col;
-        }
+        long seed = StdRandom.uniform(Long.MAX_VALUE);                  // Master seed; trial t uses the random stream (seed, t)
+        metrics = new PercolationMetrics();
+        Accumulator stats = runTrials(model, 0, trials, threads, seed, metrics);
+
+        // After all trials have been completed, record statistics
+        this.trials = trials;
+        setStatistics(stats);
+    }
 
-        public int getRow() {
-            return row;
+    // Records the results of an early-stopping run
+    private PercolationStats(Accumulator stats, PercolationMetrics metrics) {
+        this.trials = stats.count();
+        this.metrics = metrics;
+        setStatistics(stats);
+    }
+
+    // Perform batches of independent trials on an n x n grid until the 95% confidence interval extends no more than
+    // halfWidth either side of the mean, or until maxTrials trials have been performed, whichever comes first
+    // Accepts grid row/column length, target half-width, maximum number of simulations and number of worker threads
+    public static PercolationStats untilConfidence(int n, double halfWidth, int maxTrials, int threads) {
+        return untilConfidence(n, halfWidth, maxTrials, threads, WeightedQuickUnionUF::new);
+    }
+
+    // Perform batches of independent trials, as above, on percolation models that use the given union-find engine
+    public static PercolationStats untilConfidence(int n, double halfWidth, int maxTrials, int threads,
+                                                   IntFunction<UnionFind> engine) {
+        if (n <= 0)                                                     // Throw error if arguments are out of range
+            throw new IllegalArgumentException("Arguments must be greater than zero!");
+        if (engine == null)
+            throw new IllegalArgumentException("Union-find engine must not be null");
+        return untilConfidence(() -> new Percolation(n, engine), halfWidth, maxTrials, threads);
+    }
+
+    // Perform batches of independent trials, as above, on the percolation models created by model (one per worker thread)
+    public static PercolationStats untilConfidence(Supplier<? extends PercolationModel> model, double halfWidth,
+                                                   int maxTrials, int threads) {
+        if (maxTrials <= 0 || threads <= 0 || !(halfWidth > 0))         // Throw error if arguments are out of range
+            throw new IllegalArgumentException("Arguments must be greater than zero!");
+        if (model == null)
+            throw new IllegalArgumentException("Model factory must not be null");
+
+        Accumulator stats = new Accumulator();                          // Running mean & standard deviation of threshold values
+        PercolationMetrics metrics = new PercolationMetrics();          // Operations and trial times of every batch
+        long seed = StdRandom.uniform(Long.MAX_VALUE);                  // Master seed; trial t uses the random stream (seed, t)
+        int batch = Math.max(MIN_TRIALS, threads);                      // Number of trials in the next batch
+
+        while (true) {
+            batch = Math.min(batch, maxTrials - stats.count());
+            stats.merge(runTrials(model, stats.count(), batch, threads, seed, metrics));
+
+            double achieved = CONFIDENCE_95 * stats.stddev() / Math.sqrt(stats.count());
+            if (achieved <= halfWidth || stats.count() >= maxTrials)
+                break;
+
+            // The half-width shrinks with the square root of the trial count, so estimate the total number of trials
+            // needed from the current standard deviation and run the remainder (at least one trial per thread)
+            double needed = Math.pow(CONFIDENCE_95 * stats.stddev() / halfWidth, 2);
+            batch = (int) Math.max(threads, Math.min(Integer.MAX_VALUE, Math.ceil(needed) - stats.count()));
         }
+        return new PercolationStats(stats, metrics);
+    }
+
+    // Sets the mean and standard deviation of threshold values and the 95% confidence interval they imply
+    private void setStatistics(Accumulator stats) {
+        mean = stats.mean();
+        stddev = stats.stddev();
+        confidenceHi = mean + (CONFIDENCE_95 * stddev / Math.sqrt(trials));
+        confidenceLow = mean - (CONFIDENCE_95 * stddev / Math.sqrt(trials));
+    }
 
-        public int getCol() {
-            return col;
+    // Performs trials first (inclusive) through first + count (exclusive) on the worker pool and returns the statistics
+    // of their threshold values; each worker accumulates its own range, and the partial results are merged in order
+    // The workers' metrics are merged into metrics
+    private static Accumulator runTrials(Supplier<? extends PercolationModel> model, int first, int count, int threads,
+                                         long seed, PercolationMetrics metrics) {
+        Accumulator[] partials = new Accumulator[TrialExecutor.workers(count, threads)];
+        PercolationMetrics[] partialMetrics = new PercolationMetrics[partials.length];
+        TrialExecutor.execute(count, threads, (worker, lo, hi) -> {
+            PercolationTrial trial = new PercolationTrial(model.get()); // Trial context reused by every trial in the range
+            RandomStream random = new RandomStream(seed, first + lo);   // Random stream reseeded for every trial in the range
+            Accumulator partial = new Accumulator();                    // Statistics of this worker's threshold values
+            double gridSize = trial.size();                             // Number of sites in the model
+
+            for (int t = first + lo; t < first + hi; t++) {             // For each trial, calculate and add threshold value
+                random.reseed(seed, t);
+                partial.addDataValue(trial.run(random) / gridSize);
+            }
+            partials[worker] = partial;
+            partialMetrics[worker] = trial.metrics();
+        });
+
+        Accumulator stats = new Accumulator();
+        for (int w = 0; w < partials.length; w++) {
+            stats.merge(partials[w]);
+            metrics.merge(partialMetrics[w]);
         }
+        return stats;
+    }
+
+    // Return the number of trials performed
+    public int trials() {
+        return trials;
     }
 
     // Return the sample mean of percolation thresholds
@@ -117,6 +212,11 @@ public class PercolationStats {
         return confidenceHi;
     }
 
+    // Return a snapshot of the union-find operations and trial times of every trial (empty unless PercolationMetrics.ENABLED)
+    public PercolationMetrics metrics() {
+        return metrics.copy();
+    }
+
     // Test client
     public static void main(String[] args) {
         // Read grid size and number of trial simulations to perform from common input
@@ -125,12 +225,15 @@ public class PercolationStats {
         StdOut.print("Please input number of trials: ");                // Prompt for trials input
         int trials = StdIn.readInt();                                   // Read number of trials from common input
         StdOut.println();
-        PercolationStats pStats = new PercolationStats(n, trials);      // Initialize new PercolationStats object to analyze simulation results
+        int threads = Runtime.getRuntime().availableProcessors();       // Use one worker thread per available processor
+        PercolationStats pStats = new PercolationStats(n, trials, threads); // Initialize new PercolationStats object to analyze simulation results
 
         // Output statistics
         StdOut.println("                             Results\n------------------------------------------------------------------");
         StdOut.println("Mean                    =  " + pStats.mean());
         StdOut.println("Standard Deviation      =  " + pStats.stddev());
         StdOut.println("95% Confidence Interval = [" + pStats.confidenceLow() + ", " + pStats.confidenceHi() + "]");
+        if (PercolationMetrics.ENABLED)                                 // Output metrics if recorded (-Dpercolation.metrics=true)
+            StdOut.println(pStats.metrics());
     }
 }
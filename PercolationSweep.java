@@ -0,0 +1,147 @@
+/******************************************************************************
+ *  Compilation:  javac PercolationSweep.java
+ *  Execution:    java PercolationSweep
+ *
+ *  Dependencies: PercolationTrial.java
+ *                RandomStream.java
+ *                TrialExecutor.java
+ *                UnionFind.java
+ *                StdRandom.java
+ *                StdIn.java
+ *                StdOut.java
+ *
+ *  This program accepts the grid size 'n', the number of trials 't' and the number of points 'm' from the user as
+ *  common input, and estimates the percolation probability P(p) of an n-by-n system at m + 1 evenly spaced site
+ *  vacancy probabilities p between 0 and 1 using the Newman-Ziff algorithm.
+ *  Each trial opens sites in one uniformly random order and records the exact number of open sites k at which the
+ *  system first percolates. That gives the probability Q(k) that a system with exactly k open sites percolates, for
+ *  every k at once, and P(p) for any p is the average of Q(k) weighted by the binomial distribution of the number of
+ *  open sites when each of the n*n sites is open with probability p:
+ *
+ *      P(p) = sum over k of  C(n*n, k) * p^k * (1 - p)^(n*n - k) * Q(k)
+ *
+ *  So a single pass per trial yields the whole curve, instead of many separate runs at fixed values of p.
+ *
+ ******************************************************************************/
+
+import java.util.function.IntFunction;
+
+// Estimates the percolation probability of an n-by-n system over the whole range of site vacancy probabilities
+public class PercolationSweep {
+    private static final double NEGLIGIBLE = 1e-16;                     // Binomial weights below this fraction of the peak weight are dropped
+    private final int gridSize;                                         // Number of sites in grid
+    private final int trials;                                           // Number of trials performed
+    private final double[] percolated;                                  // percolated[k] = fraction of trials that percolate with k open sites
+
+    // Perform independent trials on an n x n grid
+    // Accepts grid row/column length and number of simulations to perform as integer arguments
+    public PercolationSweep(int n, int trials) {
+        this(n, trials, 1);
+    }
+
+    // Perform independent trials on an n x n grid, partitioning the trials across a fixed pool of worker threads
+    public PercolationSweep(int n, int trials, int threads) {
+        this(n, trials, threads, WeightedQuickUnionUF::new);
+    }
+
+    // Perform independent trials on an n x n grid whose percolation models use the given union-find engine
+    public PercolationSweep(int n, int trials, int threads, IntFunction<UnionFind> engine) {
+        if (n <= 0 || trials <= 0 || threads <= 0)                      // Throw error if arguments are out of range
+            throw new IllegalArgumentException("Arguments must be greater than zero!");
+        if (engine == null)
+            throw new IllegalArgumentException("Union-find engine must not be null");
+
+        this.gridSize = n * n;
+        this.trials = trials;
+        int[] openCounts = new int[trials];                             // Number of open sites at which each trial first percolated
+        long seed = StdRandom.uniform(Long.MAX_VALUE);                  // Master seed; trial t uses the random stream (seed, t)
+
+        TrialExecutor.execute(trials, threads, (worker, lo, hi) -> {
+            PercolationTrial trial = new PercolationTrial(n, engine);   // Trial context reused by every trial in the range
+            RandomStream random = new RandomStream(seed, lo);           // Random stream reseeded for every trial in the range
+            for (int t = lo; t < hi; t++) {
+                random.reseed(seed, t);
+                openCounts[t] = trial.run(random);
+            }
+        });
+
+        // A system with k open sites percolates exactly when its trial first percolated at k or fewer open sites,
+        // so Q(k) is the running total of the histogram of first-percolation counts
+        percolated = new double[gridSize + 1];
+        for (int count : openCounts)
+            percolated[count]++;
+        double total = 0;
+        for (int k = 0; k <= gridSize; k++) {
+            total += percolated[k];
+            percolated[k] = total / trials;
+        }
+    }
+
+    // Return the estimated probability that a system with exactly k open sites percolates
+    public double percolationProbability(int k) {
+        if (k < 0 || k > gridSize)
+            throw new IllegalArgumentException("number of open sites must be between 0 and " + gridSize);
+        return percolated[k];
+    }
+
+    // Return the estimated probability that the system percolates when each site is open with probability p
+    public double percolationProbability(double p) {
+        if (!(p >= 0 && p <= 1))
+            throw new IllegalArgumentException("vacancy probability must be between 0 and 1");
+        if (p == 0) return percolated[0];
+        if (p == 1) return percolated[gridSize];
+
+        // Walk outwards from the most likely number of open sites, building each binomial weight from its neighbor
+        // (relative to a peak weight of 1) and normalizing at the end; this avoids the overflow and underflow of
+        // evaluating C(n*n, k) * p^k * (1 - p)^(n*n - k) directly for large grids
+        int peak = (int) Math.min(gridSize, Math.floor((gridSize + 1) * p));
+        double odds = p / (1 - p);
+        double weightSum = 1;
+        double weighted = percolated[peak];
+
+        double weight = 1;
+        for (int k = peak; k < gridSize; k++) {                         // Weights above the peak
+            weight *= odds * (gridSize - k) / (k + 1);
+            if (weight < NEGLIGIBLE) break;
+            weightSum += weight;
+            weighted += weight * percolated[k + 1];
+        }
+
+        weight = 1;
+        for (int k = peak; k > 0; k--) {                                // Weights below the peak
+            weight *= k / (odds * (gridSize - k + 1));
+            if (weight < NEGLIGIBLE) break;
+            weightSum += weight;
+            weighted += weight * percolated[k - 1];
+        }
+        return weighted / weightSum;
+    }
+
+    // Return the number of trials performed
+    public int trials() {
+        return trials;
+    }
+
+    // Test client
+    public static void main(String[] args) {
+        // Read grid size, number of trial simulations and number of curve points from common input
+        StdOut.print("Please input grid size as a single integer: ");
+        int n = StdIn.readInt();
+        StdOut.print("Please input number of trials: ");
+        int trials = StdIn.readInt();
+        StdOut.print("Please input number of vacancy probability intervals: ");
+        int points = StdIn.readInt();
+        StdOut.println();
+        if (points <= 0)
+            throw new IllegalArgumentException("Arguments must be greater than zero!");
+        int threads = Runtime.getRuntime().availableProcessors();       // Use one worker thread per available processor
+        PercolationSweep sweep = new PercolationSweep(n, trials, threads);
+
+        // Output the percolation probability curve
+        StdOut.println("  Vacancy Probability    Percolation Probability\n------------------------------------------------");
+        for (int i = 0; i <= points; i++) {
+            double p = (double) i / points;
+            StdOut.printf("  %19.4f    %23.6f%n", p, sweep.percolationProbability(p));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/******************************************************************************
+ *  Dependencies: Percolation.java
+ *                PercolationMetrics.java
+ *                PercolationModel.java
+ *                RandomStream.java
+ *                UnionFind.java
+ *
+ *  This class serves as a reusable context for running Monte Carlo percolation trials on an n-by-n grid (or on any
+ *  other PercolationModel).
+ *  The percolation model and the array of site indices are allocated once and reset in place between trials,
+ *  so that after the first trial, running a trial performs no heap allocation.
+ *
+ ******************************************************************************/
+
+import java.util.function.IntFunction;
+
+// Runs repeated trials that open uniformly random blocked sites of one percolation model until it percolates.
+public class PercolationTrial {
+    private static final int CHUNK = 256;                       // Number of sites chosen at a time and opened in one batch
+    private final int gridSize;                                 // Number of sites in model
+    private final PercolationModel percolation;                 // Percolation model reused by every trial
+    private final int[] sites;                                  // Permutation of all site indices; the first numOpened entries are open
+    private final PercolationMetrics times = new PercolationMetrics();  // Wall-clock time of each trial, if PercolationMetrics.ENABLED
+
+    // Creates a trial context for an n-by-n grid whose percolation model uses the given union-find engine
+    public PercolationTrial(int n, IntFunction<UnionFind> engine) {
+        this(new Percolation(n, engine));
+    }
+
+    // Creates a trial context that runs every trial on the given model
+    public PercolationTrial(PercolationModel model) {
+        if (model == null)
+            throw new IllegalArgumentException("argument is null");
+        this.gridSize = model.size();
+        this.percolation = model;
+        this.sites = new int[gridSize];
+    }
+
+    // Returns the number of sites in the model
+    public int size() {
+        return gridSize;
+    }
+
+    // Runs one trial and returns the number of open sites at the moment the system first percolates
+    // The result depends only on the numbers drawn from random, not on any earlier trial run in this context
+    public int run(RandomStream random) {
+        if (!PercolationMetrics.ENABLED)
+            return open(random);
+        long start = System.nanoTime();
+        int opened = open(random);
+        times.recordTrial(System.nanoTime() - start);
+        return opened;
+    }
+
+    // Returns a snapshot of the operations and trial times recorded in this context (empty unless PercolationMetrics.ENABLED)
+    public PercolationMetrics metrics() {
+        PercolationMetrics metrics = percolation.metrics();
+        metrics.merge(times);
+        return metrics;
+    }
+
+    // Opens random sites of a freshly reset model until it percolates and returns the number of open sites
+    private int open(RandomStream random) {
+        percolation.reset();                                    // Block every site left open by the previous trial
+
+        // Start every trial from the identity permutation (a sequential fill, cheap next to the trial itself) so that
+        // the sites chosen by the partial Fisher-Yates selection below depend only on the random stream
+        for (int i = 0; i < gridSize; i++)
+            sites[i] = i;
+
+        int numOpened = 0;                                      // Number of sites opened (or chosen to be opened)
+        while (true) {
+            int end = Math.min(numOpened + CHUNK, gridSize);    // End of the next batch of sites
+
+            // Choose the next batch of blocked sites, in order, by swapping each one into place from the blocked range
+            for (int i = numOpened; i < end; i++) {
+                int j = i + random.uniform(gridSize - i);       // Random index into the blocked range
+                int site = sites[j];
+                sites[j] = sites[i];
+                sites[i] = site;
+            }
+
+            // Open the batch, stopping at the site that makes the system percolate (a full grid always percolates)
+            if (percolation.openAll(sites, numOpened, end) >= 0)
+                return percolation.numberOfOpenSites();
+            numOpened = end;
+        }
+    }
+}
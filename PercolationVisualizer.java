@@ -1,8 +1,11 @@
 /******************************************************************************
  *  Compilation:  javac PercolationVisualizer.java
  *  Execution:    java PercolationVisualizer input.txt
+ *                java PercolationVisualizer input.bin
  *
  *  Dependencies: Percolation.java
+ *                PercolationRenderer.java
+ *                SiteSequence.java
  *
  *  This program takes the name of a file as a command-line argument.
  *  From that file, it
@@ -11,9 +14,15 @@
  *    - Creates an n-by-n grid of sites (intially all blocked)
  *    - Reads in a sequence of sites (row i, column j) to open.
  *
+ *  The file may be text (n, then one "row col" pair per line) or a
+ *  binary site-sequence file written by SiteSequence, which is
+ *  memory-mapped rather than parsed.
+ *
  *  After each site is opened, it draws full sites in light blue,
  *  open sites (that aren't full) in white, and blocked sites in black,
- *  with with site (1, 1) in the upper left-hand corner.
+ *  with with site (1, 1) in the upper left-hand corner. Only the sites
+ *  whose state changed are redrawn after each open (see
+ *  PercolationRenderer).
  *
  ******************************************************************************/
 
@@ -58,6 +67,11 @@ public class PercolationVisualizer {
     }
 
     public static void main(String[] args) {
+        if (SiteSequence.isSiteSequence(args[0])) {
+            replay(new SiteSequence(args[0]));
+            return;
+        }
+
         In in = new In(args[0]);      // input file
         int n = in.readInt();         // n-by-n percolation system
 
@@ -66,15 +80,37 @@ public class PercolationVisualizer {
 
         // repeatedly read in sites to open and draw resulting system
         Percolation perc = new Percolation(n);
-        draw(perc, n);
-        StdDraw.show();
+        PercolationRenderer renderer = new PercolationRenderer(perc, n);
+        renderer.show();
         StdDraw.pause(DELAY);
         while (!in.isEmpty()) {
             int i = in.readInt();
             int j = in.readInt();
             perc.open(i, j);
-            draw(perc, n);
-            StdDraw.show();
+            renderer.opened(i, j);
+            renderer.show();
+            StdDraw.pause(DELAY);
+        }
+    }
+
+    // open and draw each site of a binary site sequence in turn
+    private static void replay(SiteSequence sites) {
+        int n = sites.n();            // n-by-n percolation system
+
+        // turn on animation mode
+        StdDraw.enableDoubleBuffering();
+
+        Percolation perc = new Percolation(n);
+        PercolationRenderer renderer = new PercolationRenderer(perc, n);
+        renderer.show();
+        StdDraw.pause(DELAY);
+        while (sites.hasNext()) {
+            int site = sites.next();
+            int i = sites.row(site);
+            int j = sites.col(site);
+            perc.open(i, j);
+            renderer.opened(i, j);
+            renderer.show();
             StdDraw.pause(DELAY);
         }
     }
@@ -0,0 +1,255 @@
+/******************************************************************************
+ *  Dependencies: PercolationMetrics.java
+ *                PercolationModel.java
+ *
+ *  This class models site percolation on an n-by-n square grid whose left and right edges (periodicX) and/or top and
+ *  bottom edges (periodicY) are joined, making a cylinder or a torus, and detects clusters that wrap around it.
+ *  Wrapping criteria have much smaller finite-size corrections than top-to-bottom spanning, so PercolationStats
+ *  estimates the threshold accurately with smaller grids.
+ *
+ *  Wrapping is found with a union-find structure that also records, for every site, its displacement (dx, dy) in
+ *  lattice units from its parent. Following parents to the root sums these into the site's position relative to the
+ *  root. When two open neighbors, one step u apart, already have the same root, their displacements from it should
+ *  differ by exactly u; any other difference is a nonzero winding vector, and the cluster wraps in each direction in
+ *  which that vector is nonzero. Find compresses paths (keeping displacements relative to the root), and union links
+ *  the smaller tree below the larger, setting the displacement of the old root so that both positions agree.
+ *
+ *  percolates() means wrapping vertically if periodicY, and spanning from the top row to the bottom row (tracked with
+ *  per-root flags as in BackwashFreePercolation) otherwise.
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+
+// Models a percolation system with NxN sites and periodic boundaries with a displacement-tracking union-find structure.
+public class PeriodicPercolation implements PercolationModel {
+    private static final byte OPEN = 1;                         // Status bit: site is open
+    private static final byte TOP = 2;                          // Status bit (meaningful on roots): component contains a top row site
+    private static final byte BOTTOM = 4;                       // Status bit (meaningful on roots): component contains a bottom row site
+
+    private static final int MAX_N = 46340;                     // Largest n for which n * n fits in an int
+    private final int n;                                        // Number of rows/columns
+    private final boolean periodicX;                            // True if the left and right edges are joined
+    private final boolean periodicY;                            // True if the top and bottom edges are joined
+    private int numOpen = 0;                                    // Number of open sites
+    private boolean spans = false;                              // True once any component touches both the top and bottom rows
+    private boolean wrapsX = false;                             // True once any component wraps around horizontally
+    private boolean wrapsY = false;                             // True once any component wraps around vertically
+    private final byte[] status;                                // Stores OPEN/TOP/BOTTOM bits for each site
+    private final int[] parent;                                 // parent[i] = parent of site i
+    private final int[] size;                                   // size[i] = number of sites in tree rooted at i
+    private final int[] dx;                                     // dx[i] = column of site i minus column of its parent (unwrapped)
+    private final int[] dy;                                     // dy[i] = row of site i minus row of its parent (unwrapped)
+    private int findDx;                                         // Displacement from its root of the site passed to the last find
+    private int findDy;
+    private final PercolationMetrics metrics = new PercolationMetrics();  // Updated only if PercolationMetrics.ENABLED
+
+    // Creates n-by-n grid, with all sites initially blocked, whose edges are joined in the given directions
+    public PeriodicPercolation(int n, boolean periodicX, boolean periodicY) {
+        if (n <= 0)
+            throw new IllegalArgumentException("Argument must be greater than or equal to 1");
+        if (n > MAX_N)
+            throw new IllegalArgumentException("Argument must be at most " + MAX_N);
+
+        this.n = n;
+        this.periodicX = periodicX;
+        this.periodicY = periodicY;
+        status = new byte[n * n];
+        parent = new int[n * n];
+        size = new int[n * n];
+        dx = new int[n * n];
+        dy = new int[n * n];
+        initialize();
+    }
+
+    // Makes every site its own root with no displacement
+    private void initialize() {
+        for (int i = 0; i < parent.length; i++)
+            parent[i] = i;
+        Arrays.fill(size, 1);
+        Arrays.fill(dx, 0);
+        Arrays.fill(dy, 0);
+    }
+
+    // Blocks every site again, restoring the state of a newly created grid without reallocating it
+    public void reset() {
+        if (numOpen == 0)                                       // Nothing has been opened since the last reset
+            return;
+        Arrays.fill(status, (byte) 0);
+        initialize();
+        numOpen = 0;
+        spans = false;
+        wrapsX = false;
+        wrapsY = false;
+    }
+
+    // Opens the site (row, col) if it is not open already (connects the site to any adjacent open sites)
+    public void open(int row, int col) {
+        if (row < 1 || col < 1 || row > n || col > n)
+            throw new IllegalArgumentException("row or column argument is outside of range");
+        openSite(n * (row - 1) + (col - 1));
+    }
+
+    // Opens siteIndices[from] through siteIndices[to - 1], given as 0-based linear indices n * (row - 1) + (col - 1),
+    // in order, stopping as soon as the system percolates (see PercolationModel)
+    public int openAll(int[] siteIndices, int from, int to) {
+        if (siteIndices == null)
+            throw new IllegalArgumentException("argument is null");
+        if (from < 0 || to > siteIndices.length || from > to)
+            throw new IllegalArgumentException("from or to argument is outside of range");
+
+        boolean percolated = percolates();
+        for (int i = from; i < to; i++) {
+            int site = siteIndices[i];
+            if (site < 0 || site >= n * n)
+                throw new IllegalArgumentException("site index " + site + " is outside of range");
+            openSite(site);
+            if (!percolated && percolates())
+                return i;
+        }
+        return -1;
+    }
+
+    // Opens the site with the given linear index if it is not open already
+    private void openSite(int site) {
+        if ((status[site] & OPEN) != 0)                         // Nothing to do if site is already open
+            return;
+
+        int row = site / n;
+        int col = site - row * n;
+        byte flags = OPEN;
+        if (row == 0) flags |= TOP;                             // Site in the top row is connected to the top
+        if (row == n - 1) flags |= BOTTOM;                      // Site in the bottom row is connected to the bottom
+        status[site] = flags;
+        numOpen++;
+        if (flags == (OPEN | TOP | BOTTOM))                     // A single row spans on its own
+            spans = true;
+
+        // Each neighbor is one step away, even when reached across a joined edge
+        if (col != n - 1) connect(site, site + 1, 1, 0);                        // Right
+        else if (periodicX) connect(site, site - (n - 1), 1, 0);
+        if (col != 0) connect(site, site - 1, -1, 0);                           // Left
+        else if (periodicX) connect(site, site + (n - 1), -1, 0);
+        if (row != n - 1) connect(site, site + n, 0, 1);                        // Below
+        else if (periodicY) connect(site, site - n * (n - 1), 0, 1);
+        if (row != 0) connect(site, site - n, 0, -1);                           // Above
+        else if (periodicY) connect(site, site + n * (n - 1), 0, -1);
+    }
+
+    // Connects open site to neighbor, which lies (ux, uy) away from it, if neighbor is open, recording any wrapping
+    private void connect(int site, int neighbor, int ux, int uy) {
+        if ((status[neighbor] & OPEN) == 0)
+            return;
+        int rootP = find(site);
+        int dxP = findDx;
+        int dyP = findDy;
+        int rootQ = find(neighbor);
+        int dxQ = findDx;
+        int dyQ = findDy;
+
+        if (rootP == rootQ) {                                   // Already connected: compare the two paths' displacements
+            if (dxP + ux != dxQ) wrapsX = true;
+            if (dyP + uy != dyQ) wrapsY = true;
+            return;
+        }
+
+        byte flags = (byte) (status[rootP] | status[rootQ]);
+        if (size[rootP] < size[rootQ]) {                        // Make smaller root point to larger one
+            parent[rootP] = rootQ;
+            dx[rootP] = dxQ - ux - dxP;                         // So that site + (ux, uy) lands on neighbor
+            dy[rootP] = dyQ - uy - dyP;
+            size[rootQ] += size[rootP];
+            status[rootQ] = flags;
+        } else {
+            parent[rootQ] = rootP;
+            dx[rootQ] = dxP + ux - dxQ;
+            dy[rootQ] = dyP + uy - dyQ;
+            size[rootP] += size[rootQ];
+            status[rootP] = flags;
+        }
+        if (flags == (OPEN | TOP | BOTTOM))                     // Merged component spans top to bottom
+            spans = true;
+        if (PercolationMetrics.ENABLED) metrics.recordUnion();
+    }
+
+    // Returns the root of site, setting findDx and findDy to the site's displacement from it, and links every site on
+    // the path directly to the root
+    private int find(int site) {
+        int root = site;
+        int sumX = 0;
+        int sumY = 0;
+        int steps = 0;
+        while (root != parent[root]) {
+            sumX += dx[root];
+            sumY += dy[root];
+            root = parent[root];
+            steps++;
+        }
+        if (PercolationMetrics.ENABLED) metrics.recordFind(steps);
+
+        findDx = sumX;
+        findDy = sumY;
+        while (site != root) {                                  // Each site's displacement from the root is what remains
+            int next = parent[site];
+            int stepX = dx[site];
+            int stepY = dy[site];
+            parent[site] = root;
+            dx[site] = sumX;
+            dy[site] = sumY;
+            sumX -= stepX;
+            sumY -= stepY;
+            site = next;
+        }
+        return root;
+    }
+
+    // Returns true if the site (row, col) is open
+    public boolean isOpen(int row, int col) {
+        if (row < 1 || col < 1 || row > n || col > n)
+            throw new IllegalArgumentException("row or column argument is outside of range");
+        return (status[n * (row - 1) + (col - 1)] & OPEN) != 0;
+    }
+
+    // Returns true if the site at (row, col) is open and its component contains a top row site
+    public boolean isFull(int row, int col) {
+        if (row < 1 || col < 1 || row > n || col > n)
+            throw new IllegalArgumentException("row or column argument is outside of range");
+        int site = n * (row - 1) + (col - 1);
+        return (status[site] & OPEN) != 0 && (status[find(site)] & TOP) != 0;
+    }
+
+    // Returns true if some cluster wraps around the grid horizontally (only possible if periodicX)
+    public boolean wrapsHorizontally() {
+        return wrapsX;
+    }
+
+    // Returns true if some cluster wraps around the grid vertically (only possible if periodicY)
+    public boolean wrapsVertically() {
+        return wrapsY;
+    }
+
+    // Returns true if some cluster connects the top row to the bottom row
+    public boolean spans() {
+        return spans;
+    }
+
+    // Returns true if system percolates: a cluster wraps vertically if periodicY, or spans top to bottom otherwise
+    public boolean percolates() {
+        return periodicY ? wrapsY : spans;
+    }
+
+    // Returns the number of sites in the grid
+    public int size() {
+        return n * n;
+    }
+
+    // Returns the number of open sites
+    public int numberOfOpenSites() {
+        return numOpen;
+    }
+
+    // Returns a snapshot of the union-find operations recorded so far (empty unless PercolationMetrics.ENABLED)
+    public PercolationMetrics metrics() {
+        return metrics.copy();
+    }
+}
@@ -0,0 +1,140 @@
+/******************************************************************************
+ *  Compilation:  javac RandomStream.java
+ *  Execution:    java RandomStream seed count
+ *  Dependencies: StdOut.java
+ *
+ *  A small, non-thread-safe pseudo-random number generator (xoshiro256**)
+ *  whose state is derived deterministically from a master seed and a
+ *  stream index, so that independent streams can be handed out to
+ *  worker threads without any shared state.
+ *
+ ******************************************************************************/
+
+/**
+ * The {@code RandomStream} class provides a stream of pseudo-random numbers
+ * identified by a <em>master seed</em> and a <em>stream index</em>.
+ * <p>
+ * Unlike {@link StdRandom}, whose static methods share one
+ * {@code java.util.Random} (and so one atomically updated seed) across all
+ * threads, each {@code RandomStream} object owns its state outright, so
+ * generation never contends with another thread. Each object should be used by
+ * only one thread at a time.
+ * <p>
+ * The stream for a given (seed, index) pair is always the same, which makes a
+ * Monte Carlo simulation reproducible regardless of how its trials are spread
+ * across threads: use the trial number as the index, and
+ * {@link #reseed(long, long)} the worker's stream at the start of each trial.
+ * Reseeding does not allocate.
+ * <p>
+ * The generator is <em>xoshiro256**</em> by David Blackman and Sebastiano
+ * Vigna, with its 256-bit state filled from four consecutive words of a
+ * <em>SplitMix64</em> sequence. Each stream starts that sequence at its own
+ * scrambled point, a mix of the seed with a mix of the index, so adjacent
+ * indices do not share state words.
+ */
+public final class RandomStream {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;   // SplitMix64 increment (odd, 2^64 / golden ratio)
+
+    private long s0, s1, s2, s3;                                    // xoshiro256** state (never all zero)
+
+    /**
+     * Initializes the stream with the given index derived from the given master seed.
+     *
+     * @param seed  the master seed
+     * @param index the stream index (for example, a trial number)
+     */
+    public RandomStream(long seed, long index) {
+        reseed(seed, index);
+    }
+
+    /**
+     * Restarts this object as the stream with the given index derived from the
+     * given master seed.
+     *
+     * @param seed  the master seed
+     * @param index the stream index (for example, a trial number)
+     */
+    public void reseed(long seed, long index) {
+        long x = mix64(seed ^ mix64((index + 1) * GOLDEN_GAMMA));    // this stream's own SplitMix64 start point
+        s0 = mix64(x += GOLDEN_GAMMA);
+        s1 = mix64(x += GOLDEN_GAMMA);
+        s2 = mix64(x += GOLDEN_GAMMA);
+        s3 = mix64(x + GOLDEN_GAMMA);
+        if ((s0 | s1 | s2 | s3) == 0) s0 = GOLDEN_GAMMA;           // the all-zero state is a fixed point
+    }
+
+    // SplitMix64 finalizer (variant 13 of Stafford's mixers)
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Returns a random long integer, uniformly distributed over all 2<sup>64</sup> values.
+     *
+     * @return a random long integer
+     */
+    public long nextLong() {
+        long result = Long.rotateLeft(s1 * 5, 7) * 9;
+        long t = s1 << 17;
+        s2 ^= s0;
+        s3 ^= s1;
+        s1 ^= s2;
+        s0 ^= s3;
+        s2 ^= t;
+        s3 = Long.rotateLeft(s3, 45);
+        return result;
+    }
+
+    /**
+     * Returns a random real number uniformly in [0, 1).
+     *
+     * @return a random real number uniformly in [0, 1)
+     */
+    public double uniform() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Returns a random integer uniformly in [0, n).
+     * <p>
+     * Uses Lemire's multiply-and-shift method, which only needs a division in
+     * the rare case that a candidate may have to be rejected.
+     *
+     * @param n number of possible integers
+     * @return a random integer uniformly between 0 (inclusive) and {@code n} (exclusive)
+     * @throws IllegalArgumentException if {@code n <= 0}
+     */
+    public int uniform(int n) {
+        if (n <= 0) throw new IllegalArgumentException("argument must be positive: " + n);
+        long m = (nextLong() >>> 32) * n;                           // 32 random bits times n: high word is the candidate
+        long low = m & 0xffffffffL;
+        if (low < n) {
+            long threshold = (0x100000000L - n) % n;                // 2^32 mod n low words are over-represented
+            while (low < threshold) {
+                m = (nextLong() >>> 32) * n;
+                low = m & 0xffffffffL;
+            }
+        }
+        return (int) (m >>> 32);
+    }
+
+    /**
+     * Unit tests the methods in this class.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        long seed = Long.parseLong(args[0]);
+        int n = Integer.parseInt(args[1]);
+        for (int i = 0; i < n; i++) {
+            RandomStream random = new RandomStream(seed, i);
+            StdOut.printf("%2d ", i);
+            StdOut.printf("%8.5f ", random.uniform());
+            StdOut.printf("%3d ", random.uniform(100));
+            StdOut.printf("%20d ", random.nextLong());
+            StdOut.println();
+        }
+    }
+}
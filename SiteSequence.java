@@ -0,0 +1,220 @@
+/******************************************************************************
+ *  Compilation:  javac SiteSequence.java
+ *  Execution:    java SiteSequence input.txt output.bin [-varint]
+ *
+ *  Dependencies: In.java
+ *                StdOut.java
+ *
+ *  Reads and writes sequences of sites to open in an n-by-n percolation system in a compact binary format, and
+ *  converts the text format read by PercolationVisualizer (n on the first line, then one "row col" pair per site)
+ *  into it.
+ *
+ *  File layout (all multi-byte values big-endian):
+ *
+ *      offset  size  field
+ *           0     4  magic "PERC"
+ *           4     1  format version (1)
+ *           5     1  encoding: 0 = each site as a 4-byte int,
+ *                              1 = each site as the zigzag-encoded difference from the previous site, as a varint
+ *           6     4  n, the number of rows/columns
+ *          10     8  count, the number of sites in the sequence
+ *          18        count sites, each a 0-based linear index n * (row - 1) + (col - 1)
+ *
+ *  Varints hold 7 bits per byte, least significant group first, with the high bit set on every byte but the last.
+ *  Consecutive sites that are close together in the grid (as in hand-drawn or replayed sequences) take 1 or 2 bytes.
+ *  Files are read through a memory-mapped buffer, so opening even a very long sequence costs no parsing up front.
+ *
+ ******************************************************************************/
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+// Sequence of sites of an n-by-n percolation system, read from a memory-mapped binary site-sequence file
+public class SiteSequence {
+    private static final byte[] MAGIC = {'P', 'E', 'R', 'C'};          // First four bytes of every site-sequence file
+    private static final byte VERSION = 1;                              // Format version written by this class
+    private static final byte FIXED = 0;                                // Encoding: 4-byte site indices
+    private static final byte VARINT = 1;                               // Encoding: zigzag varint deltas between site indices
+    private static final int HEADER_SIZE = 18;                          // Bytes before the first site
+
+    private final int n;                                                // Number of rows/columns
+    private final long count;                                           // Number of sites in the sequence
+    private final boolean varint;                                       // True if sites are delta/varint encoded
+    private final MappedByteBuffer data;                                // Mapped file, positioned at the next site
+    private long read = 0;                                              // Number of sites returned so far
+    private int previous = 0;                                           // Last site returned (base of the next delta)
+
+    // Opens the site-sequence file with the given name
+    public SiteSequence(String filename) {
+        if (filename == null)
+            throw new IllegalArgumentException("argument is null");
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IllegalArgumentException(filename + " is too large to map (over 2 GiB)");
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        catch (IOException ioe) {
+            throw new IllegalArgumentException("Could not open " + filename, ioe);
+        }
+
+        try {
+            byte[] magic = new byte[MAGIC.length];
+            data.get(magic);
+            if (!Arrays.equals(magic, MAGIC))
+                throw new IllegalArgumentException(filename + " is not a site-sequence file");
+            if (data.get() != VERSION)
+                throw new IllegalArgumentException(filename + " has an unsupported site-sequence version");
+            byte encoding = data.get();
+            if (encoding != FIXED && encoding != VARINT)
+                throw new IllegalArgumentException(filename + " has an unknown site encoding " + encoding);
+            varint = encoding == VARINT;
+            n = data.getInt();
+            count = data.getLong();
+        }
+        catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException(filename + " is truncated", e);
+        }
+        if (n <= 0 || count < 0)
+            throw new IllegalArgumentException(filename + " has an invalid header");
+    }
+
+    // Returns true if the file with the given name starts with the site-sequence magic number
+    public static boolean isSiteSequence(String filename) {
+        try (InputStream in = Files.newInputStream(Paths.get(filename))) {
+            byte[] magic = new byte[MAGIC.length];
+            return in.readNBytes(magic, 0, magic.length) == magic.length && Arrays.equals(magic, MAGIC);
+        }
+        catch (IOException ioe) {
+            return false;
+        }
+    }
+
+    // Returns the number of rows/columns of the grid
+    public int n() {
+        return n;
+    }
+
+    // Returns the number of sites in the sequence
+    public long count() {
+        return count;
+    }
+
+    // Returns true if there are sites left to read
+    public boolean hasNext() {
+        return read < count;
+    }
+
+    // Returns the 0-based linear index n * (row - 1) + (col - 1) of the next site
+    public int next() {
+        if (!hasNext())
+            throw new NoSuchElementException("no more sites in the sequence");
+        int site;
+        try {
+            if (varint) {
+                int zigzag = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data.get();
+                    zigzag |= (b & 0x7f) << shift;
+                    shift += 7;
+                } while (b < 0 && shift < 35);
+                site = previous + ((zigzag >>> 1) ^ -(zigzag & 1));
+            }
+            else
+                site = data.getInt();
+        }
+        catch (BufferUnderflowException e) {
+            throw new IllegalStateException("site-sequence file is truncated", e);
+        }
+        if (site < 0 || site >= (long) n * n)
+            throw new IllegalStateException("site index " + site + " is outside of an " + n + "-by-" + n + " grid");
+        previous = site;
+        read++;
+        return site;
+    }
+
+    // Returns the 1-based row of a linear site index
+    public int row(int site) {
+        return site / n + 1;
+    }
+
+    // Returns the 1-based column of a linear site index
+    public int col(int site) {
+        return site % n + 1;
+    }
+
+    // Writes sites[0..count-1] (0-based linear indices into an n-by-n grid) to a site-sequence file
+    public static void write(String filename, int n, int[] sites, int count, boolean varint) {
+        if (n <= 0 || count < 0 || count > sites.length)
+            throw new IllegalArgumentException("Arguments are out of range");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename), 1 << 16))) {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.writeByte(varint ? VARINT : FIXED);
+            out.writeInt(n);
+            out.writeLong(count);
+            int previous = 0;
+            for (int i = 0; i < count; i++) {
+                int site = sites[i];
+                if (site < 0 || site >= (long) n * n)
+                    throw new IllegalArgumentException("site index " + site + " is outside of an " + n + "-by-" + n + " grid");
+                if (varint) {
+                    int delta = site - previous;
+                    int zigzag = (delta << 1) ^ (delta >> 31);
+                    while ((zigzag & ~0x7f) != 0) {
+                        out.writeByte((zigzag & 0x7f) | 0x80);
+                        zigzag >>>= 7;
+                    }
+                    out.writeByte(zigzag);
+                }
+                else
+                    out.writeInt(site);
+                previous = site;
+            }
+        }
+        catch (IOException ioe) {
+            throw new UncheckedIOException("Could not write " + filename, ioe);
+        }
+    }
+
+    // Converts a text site file (n, then "row col" pairs) to a site-sequence file
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            StdOut.println("Usage: java SiteSequence input.txt output.bin [-varint]");
+            return;
+        }
+        boolean varint = args.length > 2 && args[2].equals("-varint");
+
+        In in = new In(args[0]);
+        int[] values = in.readAllInts();
+        in.close();
+        if (values.length == 0 || values.length % 2 == 0)
+            throw new IllegalArgumentException(args[0] + " must contain n followed by row/column pairs");
+
+        int n = values[0];
+        int count = (values.length - 1) / 2;
+        int[] sites = new int[count];
+        for (int i = 0; i < count; i++) {
+            int row = values[1 + 2 * i];
+            int col = values[2 + 2 * i];
+            if (row < 1 || col < 1 || row > n || col > n)
+                throw new IllegalArgumentException("row or column argument is outside of range: " + row + " " + col);
+            sites[i] = n * (row - 1) + (col - 1);
+        }
+        write(args[1], n, sites, count, varint);
+        StdOut.println("Wrote " + count + " sites of a " + n + "-by-" + n + " grid to " + args[1]);
+    }
+}
@@ -65,6 +65,7 @@ import java.net.URL;
 import java.util.LinkedList;
 import java.util.TreeSet;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CopyOnWriteArrayList;
 import javax.imageio.ImageIO;
 
 import javax.swing.ImageIcon;
@@ -294,6 +295,7 @@ import javax.swing.KeyStroke;
  *  <li> {@link #picture(double x, double y, String filename, double degrees)}
  *  <li> {@link #picture(double x, double y, String filename, double scaledWidth, double scaledHeight)}
  *  <li> {@link #picture(double x, double y, String filename, double scaledWidth, double scaledHeight, double degrees)}
+ *  <li> {@link #picture(double x, double y, Image image, double scaledWidth, double scaledHeight)}
  *  </ul>
  *  <p>
  *  These methods draw the specified image, centered at (<em>x</em>, <em>y</em>).
@@ -396,6 +398,9 @@ import javax.swing.KeyStroke;
  *  current position, using the same coordinate system as the canvas (the unit square, by default).
  *  You should use these methods in an animation loop that waits a short while before trying
  *  to poll the mouse for its current state.
+ *  Alternatively, you can register a {@link DrawListener} with
+ *  {@link #addListener(DrawListener)} to be called back on every mouse press, drag, and release,
+ *  so that your program only does work when the mouse is used.
  *  You can use the following methods to intercept keyboard events:
  *  <ul>
  *  <li> {@link #hasNextKeyTyped()}
@@ -619,6 +624,9 @@ public final class StdDraw implements ActionListener, MouseListener, MouseMotion
     private static double mouseX = 0;
     private static double mouseY = 0;
 
+    // registered mouse event callbacks
+    private static final CopyOnWriteArrayList<DrawListener> listeners = new CopyOnWriteArrayList<DrawListener>();
+
     // queue of typed key characters
     private static LinkedList<Character> keysTyped;
 
@@ -1548,6 +1556,47 @@ public final class StdDraw implements ActionListener, MouseListener, MouseMotion
     }
 
 
+    /**
+     * Draws the specified in-memory image centered at (<em>x</em>, <em>y</em>),
+     * rescaled to the specified bounding box. The image is scaled with
+     * nearest-neighbor interpolation, so each of its pixels stays a sharp
+     * block; this makes it suitable for blitting a pixel buffer that the
+     * caller updates between frames.
+     *
+     * @param  x the center <em>x</em>-coordinate of the image
+     * @param  y the center <em>y</em>-coordinate of the image
+     * @param  image the image to draw
+     * @param  scaledWidth the width of the scaled image (in screen coordinates)
+     * @param  scaledHeight the height of the scaled image (in screen coordinates)
+     * @throws IllegalArgumentException if either {@code scaledWidth}
+     *         or {@code scaledHeight} is negative
+     * @throws IllegalArgumentException if {@code x} or {@code y} is either NaN or infinite
+     * @throws IllegalArgumentException if {@code image} is {@code null}
+     */
+    public static void picture(double x, double y, Image image, double scaledWidth, double scaledHeight) {
+        validate(x, "x");
+        validate(y, "y");
+        validate(scaledWidth, "scaled width");
+        validate(scaledHeight, "scaled height");
+        validateNotNull(image, "image");
+        validateNonnegative(scaledWidth, "scaled width");
+        validateNonnegative(scaledHeight, "scaled height");
+
+        double xs = scaleX(x);
+        double ys = scaleY(y);
+        double ws = factorX(scaledWidth);
+        double hs = factorY(scaledHeight);
+        Object interpolation = offscreen.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+        offscreen.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        offscreen.drawImage(image, (int) Math.round(xs - ws/2.0),
+                                   (int) Math.round(ys - hs/2.0),
+                                   (int) Math.round(ws),
+                                   (int) Math.round(hs), null);
+        if (interpolation != null) offscreen.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+        draw();
+    }
+
+
     /**
      * Draws the specified image centered at (<em>x</em>, <em>y</em>), rotated
      * given number of degrees, and rescaled to the specified bounding box.
@@ -1871,6 +1920,28 @@ public final class StdDraw implements ActionListener, MouseListener, MouseMotion
     }
 
 
+    /**
+     * Registers a listener to be called back on mouse events.
+     * Callbacks run on the event dispatch thread.
+     *
+     * @param  listener the listener to register
+     * @throws IllegalArgumentException if {@code listener} is {@code null}
+     */
+    public static void addListener(DrawListener listener) {
+        validateNotNull(listener, "listener");
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener previously registered with {@link #addListener(DrawListener)}.
+     *
+     * @param  listener the listener to unregister
+     */
+    public static void removeListener(DrawListener listener) {
+        listeners.remove(listener);
+    }
+
+
     /**
      * This method cannot be called directly.
      */
@@ -1900,11 +1971,15 @@ public final class StdDraw implements ActionListener, MouseListener, MouseMotion
      */
     @Override
     public void mousePressed(MouseEvent e) {
+        double x = StdDraw.userX(e.getX());
+        double y = StdDraw.userY(e.getY());
         synchronized (mouseLock) {
-            mouseX = StdDraw.userX(e.getX());
-            mouseY = StdDraw.userY(e.getY());
+            mouseX = x;
+            mouseY = y;
             isMousePressed = true;
         }
+        for (DrawListener listener : listeners)
+            listener.mousePressed(x, y);
     }
 
     /**
@@ -1915,6 +1990,8 @@ public final class StdDraw implements ActionListener, MouseListener, MouseMotion
         synchronized (mouseLock) {
             isMousePressed = false;
         }
+        for (DrawListener listener : listeners)
+            listener.mouseReleased(StdDraw.userX(e.getX()), StdDraw.userY(e.getY()));
     }
 
     /**
@@ -1922,10 +1999,14 @@ public final class StdDraw implements ActionListener, MouseListener, MouseMotion
      */
     @Override
     public void mouseDragged(MouseEvent e)  {
+        double x = StdDraw.userX(e.getX());
+        double y = StdDraw.userY(e.getY());
         synchronized (mouseLock) {
-            mouseX = StdDraw.userX(e.getX());
-            mouseY = StdDraw.userY(e.getY());
+            mouseX = x;
+            mouseY = y;
         }
+        for (DrawListener listener : listeners)
+            listener.mouseDragged(x, y);
     }
 
     /**
@@ -3,6 +3,10 @@
  * statistics such as min, max, mean, sample standard deviation, and
  * sample variance.
  * <p>
+ * Each of these methods needs every value in memory at once. To compute the
+ * same statistics over a stream of values in constant memory (and to combine
+ * partial statistics computed by separate threads), use {@link Accumulator}.
+ * <p>
  * For additional documentation, see
  * <a href="https://introcs.cs.princeton.edu/22library">Section 2.2</a> of
  * <i>Computer Science: An Interdisciplinary Approach</i>
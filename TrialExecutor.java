@@ -0,0 +1,72 @@
+/******************************************************************************
+ *  Dependencies: none
+ *
+ *  This class partitions a number of independent Monte Carlo trials into one contiguous range per worker thread,
+ *  runs each range on a fixed thread pool, and waits for every range to complete.
+ *  Workers should draw trial t's random numbers from a RandomStream reseeded with (seed, t), so that results do not
+ *  depend on how trials are partitioned.
+ *  It is shared by the simulation drivers (PercolationStats, PercolationSweep).
+ *
+ ******************************************************************************/
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Runs ranges of independent trials on a fixed pool of worker threads.
+public final class TrialExecutor {
+
+    // Body run by worker number worker for trials lo (inclusive) through hi (exclusive)
+    public interface Range {
+        void run(int worker, int lo, int hi);
+    }
+
+    // Don't instantiate
+    private TrialExecutor() { }
+
+    // Returns the number of workers execute will use for the given number of trials and threads
+    // Workers are numbered 0 through workers - 1 in order of the trial ranges they run
+    public static int workers(int trials, int threads) {
+        return Math.min(threads, trials);                       // Never start a worker with no trials to run
+    }
+
+    // Runs trials 0 (inclusive) through trials (exclusive) split across workers(trials, threads) workers
+    // With a single worker the whole range runs on the calling thread. Ranges are disjoint, so workers may write results
+    // into a shared array indexed by trial or by worker, and those writes are visible to the caller once this method
+    // returns.
+    public static void execute(int trials, int threads, Range range) {
+        if (trials <= 0 || threads <= 0)
+            throw new IllegalArgumentException("Arguments must be greater than zero!");
+
+        threads = workers(trials, threads);
+        if (threads == 1) {
+            range.run(0, 0, trials);
+            return;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>(threads);
+            for (int w = 0; w < threads; w++) {
+                int lo = (int) ((long) trials * w / threads);           // First trial of this worker (inclusive)
+                int hi = (int) ((long) trials * (w + 1) / threads);     // Last trial of this worker (exclusive)
+                int worker = w;
+                workers.add(pool.submit(() -> range.run(worker, lo, hi)));
+            }
+            for (Future<?> worker : workers)
+                worker.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for trials to complete", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new IllegalStateException("Trial failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
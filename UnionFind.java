@@ -0,0 +1,85 @@
+/******************************************************************************
+ *  Compilation:  javac UnionFind.java
+ *  Dependencies: none
+ *
+ *  Common API shared by the weighted quick-union engines, so that
+ *  Percolation can be constructed with whichever engine is fastest for
+ *  a given grid size.
+ *
+ ******************************************************************************/
+
+/**
+ * The {@code UnionFind} interface represents a <em>union–find data type</em>
+ * over the elements 0 through <em>n</em>–1, supporting the
+ * <em>union</em>, <em>find</em> and <em>count</em> operations.
+ * <p>
+ * Implementations differ only in how <em>find</em> restructures the
+ * parent chain it walks:
+ * <ul>
+ * <li>{@link WeightedQuickUnionUF} leaves the chain untouched.
+ * <li>{@link WeightedQuickUnionPathCompressionUF} points every element on
+ *     the chain directly at the root.
+ * <li>{@link WeightedQuickUnionPathHalvingUF} points every other element on
+ *     the chain at its grandparent.
+ * <li>{@link WeightedQuickUnionPathSplittingUF} points every element on
+ *     the chain at its grandparent.
+ * </ul>
+ * Each implementation has a constructor taking the number of elements, so a
+ * constructor reference such as {@code WeightedQuickUnionPathHalvingUF::new}
+ * can be passed wherever an {@code IntFunction<UnionFind>} is expected.
+ */
+public interface UnionFind {
+
+    /**
+     * Returns the number of sets.
+     *
+     * @return the number of sets (between {@code 1} and {@code n})
+     */
+    int count();
+
+    /**
+     * Returns the canonical element of the set containing element {@code p}.
+     *
+     * @param p an element
+     * @return the canonical element of the set containing {@code p}
+     * @throws IllegalArgumentException unless {@code 0 <= p < n}
+     */
+    int find(int p);
+
+    /**
+     * Returns the number of elements in the set containing element {@code p}.
+     *
+     * @param p an element
+     * @return the size of the set containing {@code p}
+     * @throws IllegalArgumentException unless {@code 0 <= p < n}
+     */
+    int size(int p);
+
+    /**
+     * Merges the set containing element {@code p} with the
+     * the set containing element {@code q}.
+     *
+     * @param p one element
+     * @param q the other element
+     * @throws IllegalArgumentException unless
+     *                                  both {@code 0 <= p < n} and {@code 0 <= q < n}
+     */
+    void union(int p, int q);
+
+    /**
+     * Restores the initial state, in which each element is in its own set,
+     * without reallocating the underlying arrays. Implementations should make
+     * the cost proportional to the work done since the last reset where they
+     * can, so that a structure can be cheaply reused across many trials.
+     */
+    void reset();
+
+    /**
+     * Returns a snapshot of the operations recorded since this structure was
+     * created (not cleared by {@link #reset()}). Nothing is recorded unless
+     * {@link PercolationMetrics#ENABLED} is set.
+     *
+     * @return a copy of the recorded metrics
+     */
+    PercolationMetrics metrics();
+}
@@ -0,0 +1,84 @@
+/******************************************************************************
+ *  Compilation:  javac WeightedQuickUnionPathHalvingUF.java
+ *  Execution:  java WeightedQuickUnionPathHalvingUF < input.txt
+ *  Dependencies: WeightedQuickUnionUF.java StdIn.java StdOut.java
+ *
+ *  Weighted quick-union (by size) with path halving.
+ *
+ ******************************************************************************/
+
+/**
+ * The {@code WeightedQuickUnionPathHalvingUF} class represents a <em>union–find data type</em>
+ * implemented with <em>weighted quick union by size</em> and
+ * <em>path halving</em>.
+ * <p>
+ * Each call to <em>find</em> makes a single pass over the parent chain,
+ * linking every other element on the chain to its grandparent, which
+ * halves the length of the chain.
+ * Union by size keeps every tree at logarithmic height, and the
+ * restructuring done by <em>find</em> flattens the trees further, so the
+ * amortized cost of <em>union</em> and <em>find</em> is
+ * <em>O</em>(&alpha;(<em>n</em>)) per operation, where &alpha; is the
+ * inverse Ackermann function. The canonical element returned for a set is unaffected by
+ * the restructuring.
+ * <p>
+ * Only <em>find</em> differs from {@link WeightedQuickUnionUF}; see that
+ * class for the rest of the API.
+ */
+public class WeightedQuickUnionPathHalvingUF extends WeightedQuickUnionUF {
+
+    /**
+     * Initializes an empty union-find data structure with
+     * {@code n} elements {@code 0} through {@code n-1}.
+     * Initially, each elements is in its own set.
+     *
+     * @param n the number of elements
+     * @throws IllegalArgumentException if {@code n < 0}
+     */
+    public WeightedQuickUnionPathHalvingUF(int n) {
+        super(n);
+    }
+
+    /**
+     * Returns the canonical element of the set containing element {@code p},
+     * linking every other element on the path from {@code p} to the root to its grandparent.
+     *
+     * @param p an element
+     * @return the canonical element of the set containing {@code p}
+     * @throws IllegalArgumentException unless {@code 0 <= p < n}
+     */
+    @Override
+    public int find(int p) {
+        validate(p);
+        int steps = 0;
+        while (p != parent[p]) {
+            parent[p] = parent[parent[p]];
+            p = parent[p];
+            steps++;
+        }
+        if (PercolationMetrics.ENABLED) metrics.recordFind(steps);
+        return p;
+    }
+
+    /**
+     * Reads an integer {@code n} and a sequence of pairs of integers
+     * (between {@code 0} and {@code n-1}) from standard input, where each integer
+     * in the pair represents some element;
+     * if the elements are in different sets, merge the two sets
+     * and print the pair to standard output.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        int n = StdIn.readInt();
+        WeightedQuickUnionPathHalvingUF uf = new WeightedQuickUnionPathHalvingUF(n);
+        while (!StdIn.isEmpty()) {
+            int p = StdIn.readInt();
+            int q = StdIn.readInt();
+            if (uf.find(p) == uf.find(q)) continue;
+            uf.union(p, q);
+            StdOut.println(p + " " + q);
+        }
+        StdOut.println(uf.count() + " components");
+    }
+}
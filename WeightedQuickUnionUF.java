@@ -52,7 +52,10 @@
  * case. The <em>count</em> operation takes &Theta;(1) time.
  * p>
  * For alternative implementations of the same API, see
- * {@link UF}, {@link QuickFindUF}, and {@link QuickUnionUF}.
+ * {@link WeightedQuickUnionPathCompressionUF},
+ * {@link WeightedQuickUnionPathHalvingUF}, and
+ * {@link WeightedQuickUnionPathSplittingUF}, which override <em>find</em>
+ * to shorten the parent chains they walk.
  * For additional documentation, see
  * <a href="https://algs4.cs.princeton.edu/15uf">Section 1.5</a> of
  * <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
@@ -60,10 +63,13 @@
  * @author Robert Sedgewick
  * @author Kevin Wayne
  */
-public class WeightedQuickUnionUF {
-    private int[] parent;   // parent[i] = parent of i
-    private int[] size;     // size[i] = number of elements in subtree rooted at i
-    private int count;      // number of components
+public class WeightedQuickUnionUF implements UnionFind {
+    protected final int[] parent;   // parent[i] = parent of i
+    protected final int[] size;     // size[i] = number of elements in subtree rooted at i
+    private int count;              // number of components
+    private int[] linked;           // linked[0..linkedCount-1] = roots made children by union since last reset
+    private int linkedCount;        // number of entries in linked, or -1 once too many to track
+    protected final PercolationMetrics metrics = new PercolationMetrics();  // updated only if PercolationMetrics.ENABLED
 
     /**
      * Initializes an empty union-find data structure with
@@ -77,12 +83,60 @@ public class WeightedQuickUnionUF {
         count = n;
         parent = new int[n];
         size = new int[n];
+        linked = new int[Math.min(16, n / 2)];
         for (int i = 0; i < n; i++) {
             parent[i] = i;
             size[i] = 1;
         }
     }
 
+    /**
+     * Restores the initial state, in which each element is in its own set,
+     * without reallocating the underlying arrays.
+     * <p>
+     * Only the elements touched by {@link #union(int, int)} since the last
+     * reset are restored: every element whose parent changed was a root
+     * that {@code union} made a child, and every element whose size changed
+     * is either such a child or is still the parent of a child it absorbed
+     * (restructuring in <em>find</em> only ever points an element at an
+     * ancestor, so a root's direct children keep pointing at it).
+     */
+    public void reset() {
+        int n = parent.length;
+        count = n;
+        if (linkedCount < 0) {
+            for (int i = 0; i < n; i++) {
+                parent[i] = i;
+                size[i] = 1;
+            }
+        } else {
+            for (int i = 0; i < linkedCount; i++)
+                size[parent[linked[i]]] = 1;
+            for (int i = 0; i < linkedCount; i++) {
+                int child = linked[i];
+                parent[child] = child;
+                size[child] = 1;
+            }
+        }
+        linkedCount = 0;
+    }
+
+    // record that root has just been made a child, so reset() can restore it
+    private void track(int root) {
+        if (linkedCount < 0) return;
+        if (linkedCount == linked.length) {
+            int capacity = Math.min(2 * linked.length, parent.length / 2);
+            if (linkedCount >= capacity) {
+                linkedCount = -1;   // a full reset is now no more expensive than replaying the log
+                return;
+            }
+            int[] copy = new int[capacity];
+            System.arraycopy(linked, 0, copy, 0, linkedCount);
+            linked = copy;
+        }
+        linked[linkedCount++] = root;
+    }
+
     /**
      * Returns the number of sets.
      *
@@ -101,11 +155,26 @@ public class WeightedQuickUnionUF {
      */
     public int find(int p) {
         validate(p);
-        while (p != parent[p])
+        int steps = 0;
+        while (p != parent[p]) {
             p = parent[p];
+            steps++;
+        }
+        if (PercolationMetrics.ENABLED) metrics.recordFind(steps);
         return p;
     }
 
+    /**
+     * Returns the number of elements in the set containing element {@code p}.
+     *
+     * @param p an element
+     * @return the size of the set containing {@code p}
+     * @throws IllegalArgumentException unless {@code 0 <= p < n}
+     */
+    public int size(int p) {
+        return size[find(p)];
+    }
+
     /**
      * Returns true if the two elements are in the same set.
      *
@@ -123,7 +192,7 @@ public class WeightedQuickUnionUF {
     }
 
     // validate that p is a valid index
-    private void validate(int p) {
+    protected void validate(int p) {
         int n = parent.length;
         if (p < 0 || p >= n) {
             throw new IllegalArgumentException("index " + p + " is not between 0 and " + (n - 1));
@@ -148,11 +217,25 @@ public class WeightedQuickUnionUF {
         if (size[rootP] < size[rootQ]) {
             parent[rootP] = rootQ;
             size[rootQ] += size[rootP];
+            track(rootP);
         } else {
             parent[rootQ] = rootP;
             size[rootP] += size[rootQ];
+            track(rootQ);
         }
         count--;
+        if (PercolationMetrics.ENABLED) metrics.recordUnion();
+    }
+
+    /**
+     * Returns a snapshot of the unions and finds recorded since this
+     * structure was created. Nothing is recorded unless
+     * {@link PercolationMetrics#ENABLED} is set.
+     *
+     * @return a copy of the recorded metrics
+     */
+    public PercolationMetrics metrics() {
+        return metrics.copy();
     }
 
 